@@ -1,4 +1,4 @@
-package ru.practicum.controller.category;
+package ru.practicum.ewm.controller.category;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,8 +12,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import ru.practicum.dto.category.NewCategoryDto;
-import ru.practicum.service.category.CategoryService;
+import ru.practicum.ewm.dto.category.NewCategoryDto;
+import ru.practicum.ewm.service.category.CategoryService;
 
 import javax.validation.Valid;
 
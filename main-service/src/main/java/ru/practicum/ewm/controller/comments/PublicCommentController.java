@@ -1,4 +1,4 @@
-package ru.practicum.controller.comments;
+package ru.practicum.ewm.controller.comments;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,8 +9,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import ru.practicum.dto.comment.CommentDto;
-import ru.practicum.service.comments.CommentService;
+import ru.practicum.ewm.dto.comment.CommentDto;
+import ru.practicum.ewm.service.comments.CommentService;
 
 import java.util.List;
 
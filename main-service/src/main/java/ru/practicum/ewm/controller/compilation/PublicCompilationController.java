@@ -1,4 +1,4 @@
-package ru.practicum.controller.compilation;
+package ru.practicum.ewm.controller.compilation;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,8 +8,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import ru.practicum.dto.compilation.CompilationDto;
-import ru.practicum.service.compilation.CompilationService;
+import ru.practicum.ewm.dto.compilation.CompilationDto;
+import ru.practicum.ewm.service.compilation.CompilationService;
 
 import java.util.List;
 
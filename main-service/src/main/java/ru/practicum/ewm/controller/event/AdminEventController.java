@@ -1,4 +1,4 @@
-package ru.practicum.controller.event;
+package ru.practicum.ewm.controller.event;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,15 +12,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import ru.practicum.dto.event.EventFullDto;
-import ru.practicum.dto.event.UpdateEventDto;
-import ru.practicum.service.event.EventService;
+import ru.practicum.ewm.dto.event.EventFullDto;
+import ru.practicum.ewm.dto.event.UpdateEventDto;
+import ru.practicum.ewm.service.event.EventService;
 
 import javax.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import static ru.practicum.util.Util.YYYY_MM_DD_HH_MM_SS;
+import static ru.practicum.ewm.util.Util.YYYY_MM_DD_HH_MM_SS;
 
 @Slf4j
 @Validated
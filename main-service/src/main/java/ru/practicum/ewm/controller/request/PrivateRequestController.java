@@ -1,4 +1,4 @@
-package ru.practicum.controller.request;
+package ru.practicum.ewm.controller.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,8 +12,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import ru.practicum.dto.request.ParticipationRequestDto;
-import ru.practicum.service.request.RequestServiceImpl;
+import ru.practicum.ewm.dto.request.ParticipationRequestDto;
+import ru.practicum.ewm.service.request.RequestServiceImpl;
 
 import java.util.List;
 
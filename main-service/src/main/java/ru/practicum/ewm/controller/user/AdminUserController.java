@@ -1,4 +1,4 @@
-package ru.practicum.controller.user;
+package ru.practicum.ewm.controller.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,8 +13,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import ru.practicum.dto.user.NewUserDto;
-import ru.practicum.service.user.UserService;
+import ru.practicum.ewm.dto.user.NewUserDto;
+import ru.practicum.ewm.service.user.UserService;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -1,4 +1,4 @@
-package ru.practicum.dto.category;
+package ru.practicum.ewm.dto.category;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
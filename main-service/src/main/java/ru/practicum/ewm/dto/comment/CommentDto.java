@@ -1,4 +1,4 @@
-package ru.practicum.dto.comment;
+package ru.practicum.ewm.dto.comment;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,7 +10,7 @@ import org.hibernate.validator.constraints.Length;
 import javax.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 
-import static ru.practicum.util.Util.YYYY_MM_DD_HH_MM_SS;
+import static ru.practicum.ewm.util.Util.YYYY_MM_DD_HH_MM_SS;
 
 @Builder
 @Data
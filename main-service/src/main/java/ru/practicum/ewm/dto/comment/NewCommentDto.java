@@ -1,4 +1,4 @@
-package ru.practicum.dto.comment;
+package ru.practicum.ewm.dto.comment;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
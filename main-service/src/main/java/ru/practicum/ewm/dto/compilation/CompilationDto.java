@@ -1,11 +1,11 @@
-package ru.practicum.dto.compilation;
+package ru.practicum.ewm.dto.compilation;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.validator.constraints.Length;
-import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.ewm.dto.event.EventShortDto;
 
 import javax.validation.constraints.NotBlank;
 import java.util.List;
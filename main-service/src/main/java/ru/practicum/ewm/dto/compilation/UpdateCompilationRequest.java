@@ -1,4 +1,4 @@
-package ru.practicum.dto.compilation;
+package ru.practicum.ewm.dto.compilation;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -1,4 +1,4 @@
-package ru.practicum.dto.event;
+package ru.practicum.ewm.dto.event;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.AllArgsConstructor;
@@ -6,15 +6,15 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.validator.constraints.Length;
-import ru.practicum.dto.category.NewCategoryDto;
-import ru.practicum.dto.location.LocationDto;
-import ru.practicum.dto.user.UserShortDto;
-import ru.practicum.model.event.State;
+import ru.practicum.ewm.dto.category.NewCategoryDto;
+import ru.practicum.ewm.dto.location.LocationDto;
+import ru.practicum.ewm.dto.user.UserShortDto;
+import ru.practicum.ewm.model.event.State;
 
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
-import static ru.practicum.util.Util.YYYY_MM_DD_HH_MM_SS;
+import static ru.practicum.ewm.util.Util.YYYY_MM_DD_HH_MM_SS;
 
 @Data
 @Builder
@@ -1,16 +1,16 @@
-package ru.practicum.dto.event;
+package ru.practicum.ewm.dto.event;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import ru.practicum.dto.category.NewCategoryDto;
-import ru.practicum.dto.user.UserShortDto;
+import ru.practicum.ewm.dto.category.NewCategoryDto;
+import ru.practicum.ewm.dto.user.UserShortDto;
 
 import java.time.LocalDateTime;
 
-import static ru.practicum.util.Util.YYYY_MM_DD_HH_MM_SS;
+import static ru.practicum.ewm.util.Util.YYYY_MM_DD_HH_MM_SS;
 
 @Data
 @Builder
@@ -1,15 +1,15 @@
-package ru.practicum.dto.event;
+package ru.practicum.ewm.dto.event;
 
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.*;
 import org.hibernate.validator.constraints.Length;
-import ru.practicum.dto.location.LocationDto;
+import ru.practicum.ewm.dto.location.LocationDto;
 
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
-import static ru.practicum.util.Util.YYYY_MM_DD_HH_MM_SS;
+import static ru.practicum.ewm.util.Util.YYYY_MM_DD_HH_MM_SS;
 
 @Data
 @Builder
@@ -1,14 +1,14 @@
-package ru.practicum.dto.event;
+package ru.practicum.ewm.dto.event;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.*;
 import org.hibernate.validator.constraints.Length;
-import ru.practicum.dto.location.LocationDto;
-import ru.practicum.model.event.StateAction;
+import ru.practicum.ewm.dto.location.LocationDto;
+import ru.practicum.ewm.model.event.StateAction;
 
 import java.time.LocalDateTime;
 
-import static ru.practicum.util.Util.YYYY_MM_DD_HH_MM_SS;
+import static ru.practicum.ewm.util.Util.YYYY_MM_DD_HH_MM_SS;
 
 @Data
 @Builder
@@ -1,4 +1,4 @@
-package ru.practicum.dto.location;
+package ru.practicum.ewm.dto.location;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -1,4 +1,4 @@
-package ru.practicum.dto.request;
+package ru.practicum.ewm.dto.request;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -1,10 +1,10 @@
-package ru.practicum.dto.request;
+package ru.practicum.ewm.dto.request;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import ru.practicum.model.event.State;
+import ru.practicum.ewm.model.event.State;
 
 @Data
 @Builder
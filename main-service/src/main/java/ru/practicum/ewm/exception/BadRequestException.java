@@ -1,4 +1,4 @@
-package ru.practicum.exception;
+package ru.practicum.ewm.exception;
 
 public class BadRequestException extends IllegalArgumentException {
     public BadRequestException(final String message) {
@@ -1,4 +1,4 @@
-package ru.practicum.exception;
+package ru.practicum.ewm.exception;
 
 public class BadStateException extends RuntimeException {
     public BadStateException(final String message) {
@@ -1,4 +1,4 @@
-package ru.practicum.exception;
+package ru.practicum.ewm.exception;
 
 public class ConflictException extends RuntimeException {
     public ConflictException(final String message) {
@@ -1,4 +1,4 @@
-package ru.practicum.exception;
+package ru.practicum.ewm.exception;
 
 public class InvalidDateTimeException extends RuntimeException {
     public InvalidDateTimeException(final String message) {
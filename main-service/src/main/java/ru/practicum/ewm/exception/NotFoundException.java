@@ -1,4 +1,4 @@
-package ru.practicum.exception;
+package ru.practicum.ewm.exception;
 
 public class NotFoundException extends RuntimeException {
     public NotFoundException(final String message) {
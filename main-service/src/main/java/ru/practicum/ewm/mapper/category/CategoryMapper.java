@@ -1,8 +1,8 @@
-package ru.practicum.mapper.category;
+package ru.practicum.ewm.mapper.category;
 
 import org.mapstruct.Mapper;
-import ru.practicum.dto.category.NewCategoryDto;
-import ru.practicum.model.category.Category;
+import ru.practicum.ewm.dto.category.NewCategoryDto;
+import ru.practicum.ewm.model.category.Category;
 
 @Mapper(componentModel = "spring")
 public interface CategoryMapper {
@@ -1,12 +1,12 @@
-package ru.practicum.mapper.comment;
+package ru.practicum.ewm.mapper.comment;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import ru.practicum.dto.comment.CommentDto;
-import ru.practicum.dto.comment.NewCommentDto;
-import ru.practicum.model.comment.Comment;
-import ru.practicum.model.event.Event;
-import ru.practicum.model.user.User;
+import ru.practicum.ewm.dto.comment.CommentDto;
+import ru.practicum.ewm.dto.comment.NewCommentDto;
+import ru.practicum.ewm.model.comment.Comment;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.user.User;
 
 import java.time.LocalDateTime;
 
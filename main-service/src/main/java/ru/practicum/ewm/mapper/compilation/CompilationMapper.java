@@ -1,14 +1,14 @@
-package ru.practicum.mapper.compilation;
+package ru.practicum.ewm.mapper.compilation;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
-import ru.practicum.dto.compilation.CompilationDto;
-import ru.practicum.dto.compilation.NewCompilationDto;
-import ru.practicum.dto.event.EventShortDto;
-import ru.practicum.mapper.event.EventMapper;
-import ru.practicum.model.compilation.Compilation;
-import ru.practicum.model.event.Event;
+import ru.practicum.ewm.dto.compilation.CompilationDto;
+import ru.practicum.ewm.dto.compilation.NewCompilationDto;
+import ru.practicum.ewm.dto.event.EventShortDto;
+import ru.practicum.ewm.mapper.event.EventMapper;
+import ru.practicum.ewm.model.compilation.Compilation;
+import ru.practicum.ewm.model.event.Event;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -1,21 +1,21 @@
-package ru.practicum.mapper.event;
+package ru.practicum.ewm.mapper.event;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
-import ru.practicum.dto.category.NewCategoryDto;
-import ru.practicum.dto.event.EventFullDto;
-import ru.practicum.dto.event.EventShortDto;
-import ru.practicum.dto.event.NewEventDto;
-import ru.practicum.dto.location.LocationDto;
-import ru.practicum.dto.user.UserShortDto;
-import ru.practicum.mapper.location.LocationMapper;
-import ru.practicum.mapper.category.CategoryMapper;
-import ru.practicum.mapper.user.UserMapper;
-import ru.practicum.model.category.Category;
-import ru.practicum.model.event.Event;
-import ru.practicum.model.event.State;
-import ru.practicum.model.location.Location;
-import ru.practicum.model.user.User;
+import ru.practicum.ewm.dto.category.NewCategoryDto;
+import ru.practicum.ewm.dto.event.EventFullDto;
+import ru.practicum.ewm.dto.event.EventShortDto;
+import ru.practicum.ewm.dto.event.NewEventDto;
+import ru.practicum.ewm.dto.location.LocationDto;
+import ru.practicum.ewm.dto.user.UserShortDto;
+import ru.practicum.ewm.mapper.location.LocationMapper;
+import ru.practicum.ewm.mapper.category.CategoryMapper;
+import ru.practicum.ewm.mapper.user.UserMapper;
+import ru.practicum.ewm.model.category.Category;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.event.State;
+import ru.practicum.ewm.model.location.Location;
+import ru.practicum.ewm.model.user.User;
 
 import java.time.LocalDateTime;
 
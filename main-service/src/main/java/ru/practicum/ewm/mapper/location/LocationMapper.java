@@ -1,8 +1,8 @@
-package ru.practicum.mapper.location;
+package ru.practicum.ewm.mapper.location;
 
 import org.mapstruct.Mapper;
-import ru.practicum.dto.location.LocationDto;
-import ru.practicum.model.location.Location;
+import ru.practicum.ewm.dto.location.LocationDto;
+import ru.practicum.ewm.model.location.Location;
 
 @Mapper(componentModel = "spring")
 public interface LocationMapper {
@@ -1,9 +1,9 @@
-package ru.practicum.mapper.request;
+package ru.practicum.ewm.mapper.request;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import ru.practicum.dto.request.ParticipationRequestDto;
-import ru.practicum.model.request.Request;
+import ru.practicum.ewm.dto.request.ParticipationRequestDto;
+import ru.practicum.ewm.model.request.Request;
 
 @Mapper(componentModel = "spring")
 public interface RequestMapper {
@@ -1,9 +1,9 @@
-package ru.practicum.mapper.user;
+package ru.practicum.ewm.mapper.user;
 
 import org.mapstruct.Mapper;
-import ru.practicum.dto.user.NewUserDto;
-import ru.practicum.dto.user.UserShortDto;
-import ru.practicum.model.user.User;
+import ru.practicum.ewm.dto.user.NewUserDto;
+import ru.practicum.ewm.dto.user.UserShortDto;
+import ru.practicum.ewm.model.user.User;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
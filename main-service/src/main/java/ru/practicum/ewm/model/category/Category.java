@@ -1,4 +1,4 @@
-package ru.practicum.model.category;
+package ru.practicum.ewm.model.category;
 
 import lombok.*;
 
@@ -1,11 +1,11 @@
-package ru.practicum.model.comment;
+package ru.practicum.ewm.model.comment;
 
 import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
-import ru.practicum.model.event.Event;
-import ru.practicum.model.user.User;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.user.User;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
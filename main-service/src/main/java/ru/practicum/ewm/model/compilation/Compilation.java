@@ -1,7 +1,7 @@
-package ru.practicum.model.compilation;
+package ru.practicum.ewm.model.compilation;
 
 import lombok.*;
-import ru.practicum.model.event.Event;
+import ru.practicum.ewm.model.event.Event;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
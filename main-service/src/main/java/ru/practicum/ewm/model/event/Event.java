@@ -1,9 +1,9 @@
-package ru.practicum.model.event;
+package ru.practicum.ewm.model.event;
 
 import lombok.*;
-import ru.practicum.model.location.Location;
-import ru.practicum.model.user.User;
-import ru.practicum.model.category.Category;
+import ru.practicum.ewm.model.location.Location;
+import ru.practicum.ewm.model.user.User;
+import ru.practicum.ewm.model.category.Category;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -1,4 +1,4 @@
-package ru.practicum.model.event;
+package ru.practicum.ewm.model.event;
 
 public enum Sort {
     EVENT_DATE, VIEWS
@@ -1,4 +1,4 @@
-package ru.practicum.model.event;
+package ru.practicum.ewm.model.event;
 
 public enum State {
     PENDING, PUBLISHED, CANCELED, CONFIRMED, REJECTED
@@ -1,4 +1,4 @@
-package ru.practicum.model.event;
+package ru.practicum.ewm.model.event;
 
 public enum StateAction {
     SEND_TO_REVIEW, CANCEL_REVIEW, PUBLISH_EVENT, REJECT_EVENT
@@ -1,4 +1,4 @@
-package ru.practicum.model.location;
+package ru.practicum.ewm.model.location;
 
 import lombok.*;
 
@@ -1,8 +1,8 @@
-package ru.practicum.model.request;
+package ru.practicum.ewm.model.request;
 
 import lombok.*;
-import ru.practicum.model.event.State;
-import ru.practicum.model.user.User;
+import ru.practicum.ewm.model.event.State;
+import ru.practicum.ewm.model.user.User;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
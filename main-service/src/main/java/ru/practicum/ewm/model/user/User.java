@@ -1,4 +1,4 @@
-package ru.practicum.model.user;
+package ru.practicum.ewm.model.user;
 
 import lombok.*;
 
@@ -1,8 +1,8 @@
-package ru.practicum.repository.category;
+package ru.practicum.ewm.repository.category;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
-import ru.practicum.model.category.Category;
+import ru.practicum.ewm.model.category.Category;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
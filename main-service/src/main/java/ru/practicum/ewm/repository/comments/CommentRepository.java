@@ -1,13 +1,13 @@
-package ru.practicum.repository.comments;
+package ru.practicum.ewm.repository.comments;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import ru.practicum.model.comment.Comment;
-import ru.practicum.model.event.Event;
-import ru.practicum.model.user.User;
+import ru.practicum.ewm.model.comment.Comment;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.user.User;
 
 import java.util.List;
 
@@ -1,11 +1,11 @@
-package ru.practicum.repository.compilation;
+package ru.practicum.ewm.repository.compilation;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import ru.practicum.model.compilation.Compilation;
+import ru.practicum.ewm.model.compilation.Compilation;
 
 import java.util.List;
 
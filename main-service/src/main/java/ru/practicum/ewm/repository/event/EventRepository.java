@@ -1,14 +1,14 @@
-package ru.practicum.repository.event;
+package ru.practicum.ewm.repository.event;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import ru.practicum.model.category.Category;
-import ru.practicum.model.event.Event;
-import ru.practicum.model.event.State;
-import ru.practicum.model.user.User;
+import ru.practicum.ewm.model.category.Category;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.event.State;
+import ru.practicum.ewm.model.user.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -1,8 +1,8 @@
-package ru.practicum.repository.location;
+package ru.practicum.ewm.repository.location;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
-import ru.practicum.model.location.Location;
+import ru.practicum.ewm.model.location.Location;
 
 import java.util.List;
 
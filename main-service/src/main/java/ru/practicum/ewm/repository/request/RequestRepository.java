@@ -1,9 +1,9 @@
-package ru.practicum.repository.request;
+package ru.practicum.ewm.repository.request;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
-import ru.practicum.model.request.Request;
-import ru.practicum.model.user.User;
+import ru.practicum.ewm.model.request.Request;
+import ru.practicum.ewm.model.user.User;
 
 import java.util.List;
 
@@ -1,9 +1,9 @@
-package ru.practicum.repository.user;
+package ru.practicum.ewm.repository.user;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
-import ru.practicum.model.user.User;
+import ru.practicum.ewm.model.user.User;
 
 import java.util.List;
 
@@ -1,6 +1,6 @@
-package ru.practicum.service.category;
+package ru.practicum.ewm.service.category;
 
-import ru.practicum.dto.category.NewCategoryDto;
+import ru.practicum.ewm.dto.category.NewCategoryDto;
 
 import java.util.List;
 
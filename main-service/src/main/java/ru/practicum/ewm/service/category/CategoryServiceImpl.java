@@ -1,18 +1,18 @@
-package ru.practicum.service.category;
+package ru.practicum.ewm.service.category;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.dto.category.NewCategoryDto;
-import ru.practicum.exception.ConflictException;
-import ru.practicum.exception.NotFoundException;
-import ru.practicum.mapper.category.CategoryMapper;
-import ru.practicum.model.category.Category;
-import ru.practicum.model.event.Event;
-import ru.practicum.repository.category.CategoryRepository;
-import ru.practicum.repository.event.EventRepository;
+import ru.practicum.ewm.dto.category.NewCategoryDto;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.mapper.category.CategoryMapper;
+import ru.practicum.ewm.model.category.Category;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.repository.category.CategoryRepository;
+import ru.practicum.ewm.repository.event.EventRepository;
 
 import java.util.List;
 import java.util.stream.Collectors;
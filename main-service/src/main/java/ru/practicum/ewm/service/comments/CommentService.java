@@ -1,7 +1,7 @@
-package ru.practicum.service.comments;
+package ru.practicum.ewm.service.comments;
 
-import ru.practicum.dto.comment.CommentDto;
-import ru.practicum.dto.comment.NewCommentDto;
+import ru.practicum.ewm.dto.comment.CommentDto;
+import ru.practicum.ewm.dto.comment.NewCommentDto;
 
 import java.util.List;
 
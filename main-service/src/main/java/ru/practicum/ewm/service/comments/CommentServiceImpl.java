@@ -1,21 +1,21 @@
-package ru.practicum.service.comments;
+package ru.practicum.ewm.service.comments;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import ru.practicum.dto.comment.CommentDto;
-import ru.practicum.dto.comment.NewCommentDto;
-import ru.practicum.exception.ConflictException;
-import ru.practicum.exception.NotFoundException;
-import ru.practicum.mapper.comment.CommentMapper;
-import ru.practicum.model.comment.Comment;
-import ru.practicum.model.event.Event;
-import ru.practicum.model.event.State;
-import ru.practicum.model.user.User;
-import ru.practicum.repository.comments.CommentRepository;
-import ru.practicum.repository.event.EventRepository;
-import ru.practicum.repository.user.UserRepository;
+import ru.practicum.ewm.dto.comment.CommentDto;
+import ru.practicum.ewm.dto.comment.NewCommentDto;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.mapper.comment.CommentMapper;
+import ru.practicum.ewm.model.comment.Comment;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.event.State;
+import ru.practicum.ewm.model.user.User;
+import ru.practicum.ewm.repository.comments.CommentRepository;
+import ru.practicum.ewm.repository.event.EventRepository;
+import ru.practicum.ewm.repository.user.UserRepository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
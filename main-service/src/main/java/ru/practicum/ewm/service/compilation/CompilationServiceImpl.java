@@ -1,21 +1,21 @@
-package ru.practicum.service.compilation;
+package ru.practicum.ewm.service.compilation;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.dto.compilation.CompilationDto;
-import ru.practicum.dto.compilation.NewCompilationDto;
-import ru.practicum.dto.compilation.UpdateCompilationRequest;
-import ru.practicum.dto.event.EventShortDto;
-import ru.practicum.exception.NotFoundException;
-import ru.practicum.mapper.compilation.CompilationMapper;
-import ru.practicum.mapper.event.EventMapper;
-import ru.practicum.model.compilation.Compilation;
-import ru.practicum.model.event.Event;
-import ru.practicum.repository.compilation.CompilationRepository;
-import ru.practicum.repository.event.EventRepository;
+import ru.practicum.ewm.dto.compilation.CompilationDto;
+import ru.practicum.ewm.dto.compilation.NewCompilationDto;
+import ru.practicum.ewm.dto.compilation.UpdateCompilationRequest;
+import ru.practicum.ewm.dto.event.EventShortDto;
+import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.mapper.compilation.CompilationMapper;
+import ru.practicum.ewm.mapper.event.EventMapper;
+import ru.practicum.ewm.model.compilation.Compilation;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.repository.compilation.CompilationRepository;
+import ru.practicum.ewm.repository.event.EventRepository;
 
 import java.util.ArrayList;
 import java.util.List;
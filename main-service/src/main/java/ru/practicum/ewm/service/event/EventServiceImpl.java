@@ -1,56 +1,51 @@
-package ru.practicum.service.event;
+package ru.practicum.ewm.service.event;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.client.StatsClient;
 import ru.practicum.dto.EndpointHitDto;
-import ru.practicum.dto.ViewStatsDto;
-import ru.practicum.dto.event.EventFullDto;
-import ru.practicum.dto.event.EventShortDto;
-import ru.practicum.dto.event.NewEventDto;
-import ru.practicum.dto.event.UpdateEventDto;
-import ru.practicum.dto.location.LocationDto;
-import ru.practicum.dto.request.EventRequestStatusUpdateRequest;
-import ru.practicum.dto.request.EventRequestStatusUpdateResult;
-import ru.practicum.dto.request.ParticipationRequestDto;
-import ru.practicum.exception.BadRequestException;
-import ru.practicum.exception.ConflictException;
-import ru.practicum.exception.NotFoundException;
-import ru.practicum.exception.BadStateException;
-import ru.practicum.mapper.location.LocationMapper;
-import ru.practicum.mapper.event.EventMapper;
-import ru.practicum.mapper.request.RequestMapper;
-import ru.practicum.model.category.Category;
-import ru.practicum.model.event.Event;
-import ru.practicum.model.request.Request;
-import ru.practicum.model.event.Sort;
-import ru.practicum.model.event.State;
-import ru.practicum.model.event.StateAction;
-import ru.practicum.model.user.User;
-import ru.practicum.repository.category.CategoryRepository;
-import ru.practicum.repository.event.EventRepository;
-import ru.practicum.repository.location.LocationRepository;
-import ru.practicum.repository.request.RequestRepository;
-import ru.practicum.repository.user.UserRepository;
+import ru.practicum.ewm.dto.event.EventFullDto;
+import ru.practicum.ewm.dto.event.EventShortDto;
+import ru.practicum.ewm.dto.event.NewEventDto;
+import ru.practicum.ewm.dto.event.UpdateEventDto;
+import ru.practicum.ewm.dto.location.LocationDto;
+import ru.practicum.ewm.dto.request.EventRequestStatusUpdateRequest;
+import ru.practicum.ewm.dto.request.EventRequestStatusUpdateResult;
+import ru.practicum.ewm.dto.request.ParticipationRequestDto;
+import ru.practicum.ewm.exception.BadRequestException;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.exception.BadStateException;
+import ru.practicum.ewm.mapper.location.LocationMapper;
+import ru.practicum.ewm.mapper.event.EventMapper;
+import ru.practicum.ewm.mapper.request.RequestMapper;
+import ru.practicum.ewm.model.category.Category;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.request.Request;
+import ru.practicum.ewm.model.event.Sort;
+import ru.practicum.ewm.model.event.State;
+import ru.practicum.ewm.model.event.StateAction;
+import ru.practicum.ewm.model.user.User;
+import ru.practicum.ewm.repository.category.CategoryRepository;
+import ru.practicum.ewm.repository.event.EventRepository;
+import ru.practicum.ewm.repository.location.LocationRepository;
+import ru.practicum.ewm.repository.request.RequestRepository;
+import ru.practicum.ewm.repository.user.UserRepository;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import static java.util.Optional.ofNullable;
-import static ru.practicum.util.Util.DATE_TIME_FORMATTER;
+import static ru.practicum.ewm.util.Util.DATE_TIME_FORMATTER;
 
 @Slf4j
 @Service
@@ -64,6 +59,7 @@ public class EventServiceImpl implements EventService {
     private final LocationRepository locationRepository;
     private final RequestRepository requestRepository;
     private final StatsClient statClient;
+    private final EventViewsCache eventViewsCache;
     private final EventMapper eventMapper;
     private final RequestMapper requestMapper;
     private final LocationMapper locationMapper;
@@ -414,7 +410,8 @@ public class EventServiceImpl implements EventService {
     private void addStatistic(HttpServletRequest request) {
         String app = "main-service";
 
-        statClient.addStatistic(EndpointHitDto.builder()
+        // Recording a view must not hold up the response
+        statClient.recordHit(EndpointHitDto.builder()
                 .app(app)
                 .uri(request.getRequestURI())
                 .ip(request.getRemoteAddr())
@@ -427,22 +424,7 @@ public class EventServiceImpl implements EventService {
                 .map(Event::getId)
                 .collect(Collectors.toList());
 
-        String start = LocalDateTime.now().minusYears(100).format(DATE_TIME_FORMATTER);
-        String end = LocalDateTime.now().format(DATE_TIME_FORMATTER);
-        String eventsUri = "/events/";
-        List<String> uris = idEvents.stream().map(id -> eventsUri + id).collect(Collectors.toList());
-        ResponseEntity<Object> response = statClient.getStatistic(start, end, uris, true);
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<ViewStatsDto> viewStatsDto = objectMapper.convertValue(response.getBody(), new TypeReference<>() {
-        });
-        Map<Long, Long> hits = new HashMap<>();
-
-        for (ViewStatsDto statsDto : viewStatsDto) {
-            String uri = statsDto.getUri();
-            hits.put(Long.parseLong(uri.substring(eventsUri.length())), statsDto.getHits());
-        }
-
-        return hits;
+        return eventViewsCache.getViews(idEvents);
     }
 
     private void checkDateTime(LocalDateTime start, LocalDateTime end) {
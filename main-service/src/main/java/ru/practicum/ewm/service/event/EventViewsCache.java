@@ -0,0 +1,122 @@
+package ru.practicum.ewm.service.event;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.client.StatsClient;
+import ru.practicum.client.StatsServerUnavailableException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static ru.practicum.ewm.util.Util.DATE_TIME_FORMATTER;
+
+/*
+ * Unique views per event id. Entries older than refresh-after-ms are reloaded in the background on access while the
+ * current count is served; entries older than ttl-ms are dropped. Only the ids missing from the cache are requested.
+ * Last known counts served while stats-server is unavailable are never cached: a failed refresh keeps the entry and
+ * is retried on the next access, and missing ids are asked for again on every request until stats-server answers.
+ */
+@Component
+public class EventViewsCache {
+    private static final String EVENTS_URI = "/events/";
+
+    private final StatsClient statsClient;
+    private final boolean enabled;
+    private final LoadingCache<Long, Views> cache;
+    private final Timer staleness;
+
+    public EventViewsCache(StatsClient statsClient,
+                           MeterRegistry meterRegistry,
+                           @Value("${views-cache.enabled:true}") boolean enabled,
+                           @Value("${views-cache.max-size:10000}") long maxSize,
+                           @Value("${views-cache.ttl-ms:60000}") long ttlMs,
+                           @Value("${views-cache.refresh-after-ms:10000}") long refreshAfterMs) {
+        this.statsClient = statsClient;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .refreshAfterWrite(Duration.ofMillis(refreshAfterMs))
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Views load(Long eventId) {
+                        return fetch(List.of(eventId)).get(eventId);
+                    }
+
+                    @Override
+                    public Map<Long, Views> loadAll(Iterable<? extends Long> eventIds) {
+                        List<Long> ids = new ArrayList<>();
+                        eventIds.forEach(ids::add);
+                        return fetch(ids);
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "eventViews");
+        this.staleness = Timer.builder("event.views.staleness")
+                .description("Age of the view counts served to event pages")
+                .register(meterRegistry);
+    }
+
+    public Map<Long, Long> getViews(Collection<Long> eventIds) {
+        try {
+            if (!enabled) {
+                return fetch(eventIds).entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getViews()));
+            }
+            long now = System.currentTimeMillis();
+            Map<Long, Long> views = new HashMap<>();
+            cache.getAll(eventIds).forEach((eventId, cached) -> {
+                staleness.record(now - cached.getLoadedAt(), TimeUnit.MILLISECONDS);
+                views.put(eventId, cached.getViews());
+            });
+            return views;
+        } catch (StatsServerUnavailableException e) {
+            Map<Long, Long> views = countsOf(eventIds, e.getLastKnownHits());
+            if (enabled) {
+                cache.getAllPresent(eventIds).forEach((eventId, cached) -> views.put(eventId, cached.getViews()));
+            }
+            return views;
+        }
+    }
+
+    private Map<Long, Views> fetch(Collection<Long> eventIds) {
+        String start = LocalDateTime.now().minusYears(100).format(DATE_TIME_FORMATTER);
+        String end = LocalDateTime.now().format(DATE_TIME_FORMATTER);
+        List<String> uris = eventIds.stream().map(id -> EVENTS_URI + id).collect(Collectors.toList());
+        Map<String, Long> hits = statsClient.getHits(start, end, uris, true);
+        long loadedAt = System.currentTimeMillis();
+        Map<Long, Views> views = new HashMap<>();
+        countsOf(eventIds, hits).forEach((eventId, count) -> views.put(eventId, new Views(count, loadedAt)));
+        return views;
+    }
+
+    private static Map<Long, Long> countsOf(Collection<Long> eventIds, Map<String, Long> hits) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Long eventId : eventIds) {
+            counts.put(eventId, hits.getOrDefault(EVENTS_URI + eventId, 0L));
+        }
+        return counts;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Views {
+        private final long views;
+        private final long loadedAt;
+    }
+}
@@ -1,6 +1,6 @@
-package ru.practicum.service.request;
+package ru.practicum.ewm.service.request;
 
-import ru.practicum.dto.request.ParticipationRequestDto;
+import ru.practicum.ewm.dto.request.ParticipationRequestDto;
 
 import java.util.List;
 
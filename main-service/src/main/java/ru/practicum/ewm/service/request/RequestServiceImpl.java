@@ -1,21 +1,21 @@
-package ru.practicum.service.request;
+package ru.practicum.ewm.service.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.dto.request.ParticipationRequestDto;
-import ru.practicum.exception.BadRequestException;
-import ru.practicum.exception.ConflictException;
-import ru.practicum.exception.NotFoundException;
-import ru.practicum.mapper.request.RequestMapper;
-import ru.practicum.model.event.Event;
-import ru.practicum.model.request.Request;
-import ru.practicum.model.event.State;
-import ru.practicum.model.user.User;
-import ru.practicum.repository.event.EventRepository;
-import ru.practicum.repository.request.RequestRepository;
-import ru.practicum.repository.user.UserRepository;
+import ru.practicum.ewm.dto.request.ParticipationRequestDto;
+import ru.practicum.ewm.exception.BadRequestException;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.mapper.request.RequestMapper;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.request.Request;
+import ru.practicum.ewm.model.event.State;
+import ru.practicum.ewm.model.user.User;
+import ru.practicum.ewm.repository.event.EventRepository;
+import ru.practicum.ewm.repository.request.RequestRepository;
+import ru.practicum.ewm.repository.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -1,6 +1,6 @@
-package ru.practicum.service.user;
+package ru.practicum.ewm.service.user;
 
-import ru.practicum.dto.user.NewUserDto;
+import ru.practicum.ewm.dto.user.NewUserDto;
 
 import java.util.List;
 
@@ -1,14 +1,14 @@
-package ru.practicum.service.user;
+package ru.practicum.ewm.service.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.dto.user.NewUserDto;
-import ru.practicum.mapper.user.UserMapper;
-import ru.practicum.model.user.User;
-import ru.practicum.repository.user.UserRepository;
+import ru.practicum.ewm.dto.user.NewUserDto;
+import ru.practicum.ewm.mapper.user.UserMapper;
+import ru.practicum.ewm.model.user.User;
+import ru.practicum.ewm.repository.user.UserRepository;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -1,4 +1,4 @@
-package ru.practicum.util;
+package ru.practicum.ewm.util;
 
 import java.time.format.DateTimeFormatter;
 
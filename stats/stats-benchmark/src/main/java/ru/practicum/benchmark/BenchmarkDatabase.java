@@ -0,0 +1,93 @@
+package ru.practicum.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.StatsServer;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.repository.EndpointHitCopyRepository;
+import ru.practicum.service.DictionaryService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * stats-server without its web server, over the database of SPRING_DATASOURCE_URL, POSTGRES_USER and
+ * POSTGRES_PASSWORD. The benchmarks truncate ENDPOINT_HIT and create tables of their own, so point them at a scratch
+ * database. Hits are generated from a fixed seed: 1000 uris, about 65k IPv4 addresses, one day of timestamps.
+ */
+@Slf4j
+final class BenchmarkDatabase {
+    static final String APP = "ewm-main-service";
+    static final int URIS = 1000;
+    static final LocalDateTime DAY = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    private static final int LOAD_CHUNK = 100_000;
+    private static final String[] ARGS = {
+            "--stats-server.archive.enabled=false",
+            "--stats-server.ingestion.mode=sync",
+            "--logging.level.root=WARN",
+            "--logging.level.ru.practicum.benchmark=INFO",
+            "--logging.level.org.springframework.transaction.interceptor=WARN",
+            "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN"};
+
+    private BenchmarkDatabase() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(StatsServer.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .properties("spring.config.name=" + StatsServer.CONFIG_NAME)
+                .run(ARGS);
+    }
+
+    // Dictionary ids are resolved, so the hits can go to the repositories directly
+    static List<EndpointHit> generateHits(ConfigurableApplicationContext context, Random random, int count) {
+        DictionaryService dictionaryService = context.getBean(DictionaryService.class);
+        Integer appId = dictionaryService.getOrCreateAppId(APP);
+        List<EndpointHit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String uri = "/events/" + random.nextInt(URIS);
+            hits.add(EndpointHit.builder()
+                    .app(APP)
+                    .appId(appId)
+                    .uri(uri)
+                    .uriId(dictionaryService.getOrCreateUriId(uri))
+                    .ip("10.0." + random.nextInt(256) + "." + random.nextInt(256))
+                    .timestamp(DAY.plusSeconds(random.nextInt(24 * 60 * 60)))
+                    .build());
+        }
+        return hits;
+    }
+
+    static void truncateHits(ConfigurableApplicationContext context) {
+        context.getBean(JdbcTemplate.class).execute("truncate ENDPOINT_HIT");
+    }
+
+    // Loads ENDPOINT_HIT with exactly count generated hits, unless it already holds that many
+    static void loadHits(ConfigurableApplicationContext context, int count) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long existing = jdbcTemplate.queryForObject("select count(*) from ENDPOINT_HIT", Long.class);
+        if (existing != null && existing == count) {
+            return;
+        }
+        log.info("Loading {} hits", count);
+        truncateHits(context);
+        EndpointHitCopyRepository copyRepository = context.getBean(EndpointHitCopyRepository.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        Random random = new Random(42);
+        for (int loaded = 0; loaded < count; loaded += LOAD_CHUNK) {
+            List<EndpointHit> hits = generateHits(context, random, Math.min(LOAD_CHUNK, count - loaded));
+            transactionTemplate.executeWithoutResult(status -> copyRepository.copyAll(hits));
+        }
+        // Sets the visibility map, so distinct counts can run as index-only scans
+        jdbcTemplate.execute("vacuum analyze ENDPOINT_HIT");
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.repository.EndpointHitBatchRepository;
+import ru.practicum.repository.EndpointHitCopyRepository;
+import ru.practicum.repository.StatsRepository;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Hits per second written to ENDPOINT_HIT by each insert path, without rollups and dictionary lookups: one
+ * StatsRepository.save per hit in a transaction of its own (the original POST /hit), and batches of BATCH hits
+ * through EndpointHitBatchRepository and EndpointHitCopyRepository. The table is emptied before every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkLoadBenchmark {
+    private static final int BATCH = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private StatsRepository statsRepository;
+    private EndpointHitBatchRepository batchRepository;
+    private EndpointHitCopyRepository copyRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<EndpointHit> hits;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        statsRepository = context.getBean(StatsRepository.class);
+        batchRepository = context.getBean(EndpointHitBatchRepository.class);
+        copyRepository = context.getBean(EndpointHitCopyRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        hits = BenchmarkDatabase.generateHits(context, new Random(42), BATCH);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        BenchmarkDatabase.truncateHits(context);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkDatabase.truncateHits(context);
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void save() {
+        for (EndpointHit hit : hits) {
+            // A hit with an id would be merged instead of inserted
+            hit.setId(null);
+            statsRepository.save(hit);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void batchInsert() {
+        transactionTemplate.executeWithoutResult(status -> batchRepository.saveAll(hits));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void copy() {
+        transactionTemplate.executeWithoutResult(status -> copyRepository.copyAll(hits));
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * count(distinct ip) per uri on the earlier VARCHAR ip column against the 16-byte BYTEA one (IPv4-mapped IPv6, see
+ * IpAddresses). Both tables hold the same rows: 1000 uris and about 1M distinct IPv4 addresses within one day, with
+ * the (uri_id, created) include (ip) index of ENDPOINT_HIT. They are kept between runs and rebuilt when the row count
+ * changes; drop BENCH_HIT_VARCHAR and BENCH_HIT_BYTEA when done.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DistinctIpBenchmark {
+    private static final String ALL_URIS = "select uri_id, count(distinct ip) from %s group by uri_id";
+    private static final String PAGE_OF_URIS = "select uri_id, count(distinct ip) from %s " +
+            "where uri_id in (1, 2, 3, 4, 5, 6, 7, 8, 9, 10) and created between '2023-01-01' and '2023-01-02' " +
+            "group by uri_id";
+
+    @Param("5000000")
+    public int rows;
+
+    @Param({"varchar", "bytea"})
+    public String column;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private String allUris;
+    private String pageOfUris;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        if (!loaded("BENCH_HIT_VARCHAR") || !loaded("BENCH_HIT_BYTEA")) {
+            load();
+        }
+        String table = "BENCH_HIT_" + column.toUpperCase();
+        log.info("{}: {}", table, jdbcTemplate.queryForObject(
+                "select pg_size_pretty(pg_total_relation_size(?::regclass))", String.class, table.toLowerCase()));
+        allUris = String.format(ALL_URIS, table);
+        pageOfUris = String.format(PAGE_OF_URIS, table);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> allUris() {
+        return jdbcTemplate.queryForList(allUris);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> pageOfUris() {
+        return jdbcTemplate.queryForList(pageOfUris);
+    }
+
+    private boolean loaded(String table) {
+        if (jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, table) != Boolean.TRUE) {
+            return false;
+        }
+        Long count = jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+        return count != null && count == rows;
+    }
+
+    private void load() {
+        log.info("Loading {} rows into BENCH_HIT_VARCHAR and BENCH_HIT_BYTEA", rows);
+        jdbcTemplate.execute("drop table if exists BENCH_HIT_VARCHAR");
+        jdbcTemplate.execute("drop table if exists BENCH_HIT_BYTEA");
+        jdbcTemplate.execute("create table BENCH_HIT_VARCHAR (uri_id INTEGER, ip VARCHAR(64), " +
+                "created TIMESTAMP WITHOUT TIME ZONE)");
+        jdbcTemplate.execute("create table BENCH_HIT_BYTEA (uri_id INTEGER, ip BYTEA, " +
+                "created TIMESTAMP WITHOUT TIME ZONE)");
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                // Seeds random() of this session, so every load has the same rows
+                statement.execute("select setseed(0.42)");
+                statement.executeUpdate("insert into BENCH_HIT_VARCHAR (uri_id, ip, created) " +
+                        "select (random() * 1000)::int, " +
+                        "'10.' || (random() * 15)::int || '.' || (random() * 255)::int || '.' || " +
+                        "(random() * 255)::int, timestamp '2023-01-01' + random() * interval '1 day' " +
+                        "from generate_series(1, " + rows + ")");
+            }
+            return null;
+        });
+        jdbcTemplate.update("insert into BENCH_HIT_BYTEA (uri_id, ip, created) " +
+                "select uri_id, decode('00000000000000000000ffff', 'hex') || " +
+                "substring(int8send(ip::inet - '0.0.0.0'::inet) from 5 for 4), created " +
+                "from BENCH_HIT_VARCHAR");
+        for (String table : List.of("BENCH_HIT_VARCHAR", "BENCH_HIT_BYTEA")) {
+            jdbcTemplate.execute("create index on " + table + " (uri_id, created) include (ip)");
+            jdbcTemplate.execute("vacuum analyze " + table);
+        }
+    }
+}
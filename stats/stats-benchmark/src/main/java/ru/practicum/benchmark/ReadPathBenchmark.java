@@ -0,0 +1,104 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.mapper.EndpointHitMapper;
+import ru.practicum.model.ViewStats;
+import ru.practicum.repository.StatsRepository;
+import ru.practicum.service.DictionaryService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+ * Raw-table GET /stats aggregations: the native JDBC queries of StatsRepository against the JPQL constructor
+ * expressions they replaced, mapped to ViewStatsDto the way StatsServiceImpl used to. The range covers the whole
+ * loaded day; page is the uris of one page of events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReadPathBenchmark {
+    private static final LocalDateTime START = BenchmarkDatabase.DAY;
+    private static final LocalDateTime END = BenchmarkDatabase.DAY.plusDays(1);
+    private static final String JPQL = " select new ru.practicum.model.ViewStats(appId, uriId, %s as hits) " +
+            "from EndpointHit where timestamp between :start and :end%s group by appId, uriId order by hits desc";
+
+    @Param("1000000")
+    public int hits;
+
+    @Param({"false", "true"})
+    public boolean unique;
+
+    @Param({"page", "all"})
+    public String uris;
+
+    private ConfigurableApplicationContext context;
+    private StatsRepository statsRepository;
+    private DictionaryService dictionaryService;
+    private EndpointHitMapper endpointHitMapper;
+    private EntityManager entityManager;
+    private List<Integer> uriIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        BenchmarkDatabase.loadHits(context, hits);
+        statsRepository = context.getBean(StatsRepository.class);
+        dictionaryService = context.getBean(DictionaryService.class);
+        endpointHitMapper = context.getBean(EndpointHitMapper.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        uriIds = "all".equals(uris) ? null : dictionaryService.findUriIds(IntStream.rangeClosed(1, 10)
+                .mapToObj(i -> "/events/" + i)
+                .collect(Collectors.toList()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> nativeJdbc() {
+        return statsRepository.getStatistic(START, END, uriIds, unique);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> jpql() {
+        TypedQuery<ViewStats> query = entityManager.createQuery(String.format(JPQL,
+                        unique ? "count(distinct ip)" : "count(ip)", uriIds == null ? "" : " and uriId in (:uriIds)"),
+                        ViewStats.class)
+                .setParameter("start", START)
+                .setParameter("end", END);
+        if (uriIds != null) {
+            query.setParameter("uriIds", uriIds);
+        }
+        return query.getResultList().stream()
+                .map(stats -> endpointHitMapper.toViewStatsDto(stats, dictionaryService.getAppName(stats.getAppId()),
+                        dictionaryService.getUri(stats.getUriId())))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Opens after failureThreshold consecutive failures and refuses calls for openMs. Then a single probe call is let
+ * through: its success closes the breaker, its failure opens it again.
+ */
+@Slf4j
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMs;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private final LongAdder refused = new LongAdder();
+    private volatile long openedAt;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMs) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+    }
+
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.currentTimeMillis() - openedAt >= openMs
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return true;
+        }
+        refused.increment();
+        return false;
+    }
+
+    public void onSuccess() {
+        failures.set(0);
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            log.info("Circuit breaker {} closed", name);
+        }
+    }
+
+    public void onFailure() {
+        State current = state.get();
+        if (current == State.HALF_OPEN
+                || current == State.CLOSED && failures.incrementAndGet() >= failureThreshold) {
+            openedAt = System.currentTimeMillis();
+            failures.set(0);
+            if (state.getAndSet(State.OPEN) == State.CLOSED) {
+                log.warn("Circuit breaker {} opened for {} ms", name, openMs);
+            }
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public long getRefused() {
+        return refused.sum();
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.dto.EndpointHitDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/*
+ * Bounded buffer of hits drained by a single flusher thread, every flushIntervalMs or as soon as a batch is full.
+ * Producers never take a lock: a slot is reserved by a CAS on the size before the hit is queued.
+ */
+@Slf4j
+public class HitBuffer {
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final ConcurrentLinkedQueue<EndpointHitDto> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final int capacity;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    // Sends one batch, false if the server did not accept it
+    private final Predicate<List<EndpointHitDto>> sink;
+    private final ScheduledExecutorService flusher;
+
+    public HitBuffer(int capacity, int batchSize, long flushIntervalMs, OverflowPolicy overflowPolicy,
+                     Predicate<List<EndpointHitDto>> sink) {
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.sink = sink;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-client-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean offer(EndpointHitDto endpointHitDto) {
+        if (flusher.isShutdown()) {
+            dropped.increment();
+            return false;
+        }
+        while (!reserve()) {
+            switch (overflowPolicy) {
+                case DROP_NEWEST:
+                    dropped.increment();
+                    return false;
+                case DROP_OLDEST:
+                    if (queue.poll() != null) {
+                        size.decrementAndGet();
+                        dropped.increment();
+                    } else {
+                        // Slots are reserved by producers that have not queued their hit yet
+                        Thread.onSpinWait();
+                    }
+                    break;
+                case BLOCK:
+                    requestFlush();
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    if (Thread.currentThread().isInterrupted()) {
+                        dropped.increment();
+                        return false;
+                    }
+                    break;
+            }
+        }
+        queue.offer(endpointHitDto);
+        if (size.get() >= batchSize) {
+            requestFlush();
+        }
+        return true;
+    }
+
+    private boolean reserve() {
+        while (true) {
+            int current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushRequested.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private synchronized void flush() {
+        while (true) {
+            List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+            EndpointHitDto endpointHitDto;
+            while (batch.size() < batchSize && (endpointHitDto = queue.poll()) != null) {
+                batch.add(endpointHitDto);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            size.addAndGet(-batch.size());
+            boolean sent;
+            try {
+                sent = sink.test(batch);
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush {} hits: {}", batch.size(), e.toString());
+                sent = false;
+            }
+            if (!sent) {
+                // The batch is not retried, so an unavailable server cannot make the buffer grow
+                failed.add(batch.size());
+                return;
+            }
+            flushed.add(batch.size());
+        }
+    }
+
+    // Sends whatever is buffered; hits offered after this are dropped
+    public void close(long timeoutMs) {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    // Called by the client owning the buffer, whichever mode it runs in
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stats.client.buffer.size", this, HitBuffer::getSize)
+                .description("Hits waiting to be flushed to stats-server")
+                .register(registry);
+        FunctionCounter.builder("stats.client.hits", this, HitBuffer::getFlushed)
+                .description("Buffered hits by outcome")
+                .tag("result", "flushed")
+                .register(registry);
+        FunctionCounter.builder("stats.client.hits", this, HitBuffer::getDropped)
+                .description("Buffered hits by outcome")
+                .tag("result", "dropped")
+                .register(registry);
+        FunctionCounter.builder("stats.client.hits", this, HitBuffer::getFailed)
+                .description("Buffered hits by outcome")
+                .tag("result", "failed")
+                .register(registry);
+    }
+
+    public int getSize() {
+        return size.get();
+    }
+
+    public long getFlushed() {
+        return flushed.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+}
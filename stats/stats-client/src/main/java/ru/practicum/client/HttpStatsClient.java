@@ -0,0 +1,403 @@
+package ru.practicum.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.ViewStatsDto;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "stats-server.client", name = "mode", havingValue = "http", matchIfMissing = true)
+public class HttpStatsClient extends BaseClient implements StatsClient {
+    private final ObjectMapper objectMapper;
+    private final ObjectReader viewStatsReader;
+    private final HitBuffer hitBuffer;
+    private final URI hitUri;
+    private final Duration asyncTimeout;
+    private final int asyncMaxPending;
+    private final Semaphore asyncPermits;
+    private final ThreadPoolExecutor asyncExecutor;
+    private final HttpClient asyncClient;
+    private final CloseableHttpClient httpClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Map<LastKnownKey, Long> lastKnownHits;
+    private final ConcurrentMap<HitsKey, CompletableFuture<Long>> inFlightHits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HttpStatsClient(@Value("${stats-server.url}") String serverUrl,
+                       StatsClientProperties properties,
+                       RestTemplateBuilder builder,
+                       ObjectMapper objectMapper) {
+        this(serverUrl, properties, builder, objectMapper, createHttpClient(properties));
+    }
+
+    private HttpStatsClient(String serverUrl, StatsClientProperties properties, RestTemplateBuilder builder,
+                        ObjectMapper objectMapper, CloseableHttpClient httpClient) {
+        super(
+                builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                        .build()
+        );
+        this.httpClient = httpClient;
+        this.circuitBreaker = new CircuitBreaker("stats-server", properties.getBreakerFailureThreshold(),
+                properties.getBreakerOpenMs());
+        int lastKnownCapacity = properties.getLastKnownCapacity();
+        this.lastKnownHits = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LastKnownKey, Long> eldest) {
+                return size() > lastKnownCapacity;
+            }
+        });
+        this.objectMapper = objectMapper;
+        this.viewStatsReader = objectMapper.readerFor(ViewStatsDto.class);
+        this.hitUri = URI.create(serverUrl + "/hit");
+        this.asyncTimeout = Duration.ofMillis(properties.getAsyncTimeoutMs());
+        this.asyncMaxPending = properties.getAsyncMaxPending();
+        this.asyncPermits = new Semaphore(asyncMaxPending);
+        int asyncThreads = properties.getAsyncThreads();
+        // The client only runs response handling here, the exchange itself is driven by its selector thread
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.asyncExecutor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(asyncMaxPending), runnable -> {
+            Thread thread = new Thread(runnable, "stats-client-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.asyncClient = HttpClient.newBuilder()
+                .executor(asyncExecutor)
+                .connectTimeout(asyncTimeout)
+                .build();
+        this.hitBuffer = properties.isBufferEnabled()
+                ? new HitBuffer(properties.getBufferCapacity(), properties.getBatchSize(),
+                properties.getFlushIntervalMs(), properties.getOverflowPolicy(),
+                hits -> addStatistics(hits).getStatusCode().is2xxSuccessful())
+                : null;
+    }
+
+    private static CloseableHttpClient createHttpClient(StatsClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        // All requests go to the one stats-server route
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnections());
+        long keepAliveMs = properties.getKeepAliveMs();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout((int) properties.getConnectTimeoutMs())
+                        .setSocketTimeout((int) properties.getReadTimeoutMs())
+                        .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeoutMs())
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAliveMs = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return serverKeepAliveMs > 0 ? Math.min(serverKeepAliveMs, keepAliveMs) : keepAliveMs;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    // Buffered and sent with other hits in one POST /hits, or posted on its own when buffering is off
+    @Override
+    public void recordHit(EndpointHitDto endpointHitDto) {
+        if (hitBuffer != null) {
+            hitBuffer.offer(endpointHitDto);
+            return;
+        }
+        addStatisticAsync(endpointHitDto).whenComplete((status, e) -> {
+            if (e != null) {
+                log.warn("Failed to add statistic for uri {}: {}", endpointHitDto.getUri(), e.toString());
+            }
+        });
+    }
+
+    public ResponseEntity<Object> addStatistic(EndpointHitDto endpointHitDto) {
+        return postGuarded("/hit", endpointHitDto);
+    }
+
+    /*
+     * Returns at once with the status code of POST /hit to come. At most async-max-pending hits are in flight;
+     * beyond that the hit is dropped and the future fails with RejectedExecutionException, so the caller never waits.
+     */
+    public CompletableFuture<Integer> addStatisticAsync(EndpointHitDto endpointHitDto) {
+        if (!asyncPermits.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many pending hits"));
+        }
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(hitUri)
+                    .timeout(asyncTimeout)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(endpointHitDto)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            asyncPermits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            asyncPermits.release();
+            return CompletableFuture.failedFuture(new StatsServerUnavailableException("Circuit breaker is open"));
+        }
+        return asyncClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, e) -> {
+                    asyncPermits.release();
+                    if (e != null || isServerFailure(HttpStatus.valueOf(response.statusCode()))) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                })
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    public ResponseEntity<Object> addStatistics(List<EndpointHitDto> endpointHitDtos) {
+        return postGuarded("/hits", endpointHitDtos);
+    }
+
+    // While the breaker is open the hits are not sent
+    private <T> ResponseEntity<Object> postGuarded(String path, T body) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new StatsServerUnavailableException("Circuit breaker is open");
+        }
+        ResponseEntity<Object> response;
+        try {
+            response = post(path, body);
+        } catch (RestClientException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+        if (isServerFailure(response.getStatusCode())) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+        return response;
+    }
+
+    private static boolean isServerFailure(HttpStatus status) {
+        return status.is5xxServerError() || status == HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    @Override
+    public List<ViewStatsDto> getStatistic(String start, String end, List<String> uris, Boolean unique) {
+        return readStatistic(start, end, uris, unique, viewStats -> {
+            List<ViewStatsDto> result = new ArrayList<>();
+            viewStats.forEachRemaining(result::add);
+            return result;
+        });
+    }
+
+    /*
+     * Hits by uri, summed over apps. Concurrent lookups share in-flight requests: a uri already being fetched for the
+     * same range is awaited, and only the remaining uris are requested, in one call.
+     * If stats-server fails (I/O error, 5xx or 429) or the breaker is open, StatsServerUnavailableException is thrown
+     * with the last hits received for each uri and the same unique flag, whatever range they were requested for, or
+     * zero for uris never received, so that the caller can show them without mistaking them for fresh counts.
+     * Other errors, such as a 4xx, are rethrown as they are.
+     */
+    @Override
+    public Map<String, Long> getHits(String start, String end, List<String> uris, Boolean unique) {
+        Map<String, CompletableFuture<Long>> pending = new HashMap<>();
+        Map<String, CompletableFuture<Long>> owned = new LinkedHashMap<>();
+        for (String uri : uris) {
+            if (pending.containsKey(uri)) {
+                continue;
+            }
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            CompletableFuture<Long> inFlight = inFlightHits.putIfAbsent(new HitsKey(start, end, unique, uri), future);
+            if (inFlight == null) {
+                owned.put(uri, future);
+                pending.put(uri, future);
+            } else {
+                pending.put(uri, inFlight);
+            }
+        }
+        if (!owned.isEmpty()) {
+            try {
+                Map<String, Long> fetched = fetchHits(start, end, new ArrayList<>(owned.keySet()), unique);
+                // null stands for a uri without hits
+                owned.forEach((uri, future) -> future.complete(fetched.get(uri)));
+            } catch (RuntimeException e) {
+                owned.values().forEach(future -> future.completeExceptionally(e));
+            } finally {
+                owned.forEach((uri, future) -> inFlightHits.remove(new HitsKey(start, end, unique, uri), future));
+            }
+        }
+        Map<String, Long> hits = new HashMap<>();
+        RuntimeException unavailable = null;
+        for (Map.Entry<String, CompletableFuture<Long>> entry : pending.entrySet()) {
+            Long count;
+            try {
+                count = entry.getValue().join();
+            } catch (CompletionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                if (!isUnavailable(cause)) {
+                    throw cause;
+                }
+                unavailable = cause;
+                count = lastKnownHits.getOrDefault(new LastKnownKey(entry.getKey(), unique), 0L);
+            }
+            if (count != null) {
+                hits.put(entry.getKey(), count);
+            }
+        }
+        if (unavailable != null) {
+            log.warn("Serving last known hits for {} uris: {}", uris.size(), unavailable.toString());
+            throw new StatsServerUnavailableException(unavailable.getMessage(), hits);
+        }
+        return hits;
+    }
+
+    // Failures the breaker counts; a 4xx or an unreadable response is a bug to surface, not an outage
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof StatsServerUnavailableException
+                || e instanceof ResourceAccessException
+                || e instanceof HttpStatusCodeException && isServerFailure(((HttpStatusCodeException) e).getStatusCode());
+    }
+
+    private Map<String, Long> fetchHits(String start, String end, List<String> uris, Boolean unique) {
+        Map<String, Long> hits = readStatistic(start, end, uris, unique, viewStats -> {
+            Map<String, Long> result = new HashMap<>();
+            viewStats.forEachRemaining(viewStatsDto ->
+                    result.merge(viewStatsDto.getUri(), viewStatsDto.getHits(), Long::sum));
+            return result;
+        });
+        hits.forEach((uri, count) -> lastKnownHits.put(new LastKnownKey(uri, unique), count));
+        return hits;
+    }
+
+    // The response is bound element by element straight from the stream, without an intermediate tree
+    private <T> T readStatistic(String start, String end, List<String> uris, Boolean unique,
+                                Function<MappingIterator<ViewStatsDto>, T> collector) {
+        Map<String, Object> parameters = Map.of(
+                "start", start,
+                "end", end,
+                "uris", String.join(",", uris),
+                "unique", unique
+        );
+        if (!circuitBreaker.tryAcquire()) {
+            throw new StatsServerUnavailableException("Circuit breaker is open");
+        }
+        T result;
+        try {
+            result = rest.execute("/stats?start={start}&end={end}&uris={uris}&unique={unique}", HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                    response -> {
+                        try (MappingIterator<ViewStatsDto> viewStats = viewStatsReader.readValues(response.getBody())) {
+                            return collector.apply(viewStats);
+                        }
+                    }, parameters);
+        } catch (HttpStatusCodeException e) {
+            if (isServerFailure(e.getStatusCode())) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+        circuitBreaker.onSuccess();
+        return result;
+    }
+
+    public Optional<HitBuffer> getHitBuffer() {
+        return Optional.ofNullable(hitBuffer);
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class HitsKey {
+        private final String start;
+        private final String end;
+        private final Boolean unique;
+        private final String uri;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class LastKnownKey {
+        private final String uri;
+        private final Boolean unique;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (hitBuffer != null) {
+            hitBuffer.close(asyncTimeout.toMillis());
+        }
+        // Every pending hit holds a permit; getting all of them back means nothing is left in flight
+        try {
+            if (!asyncPermits.tryAcquire(asyncMaxPending, asyncTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Stats client stopped with {} pending hits",
+                        asyncMaxPending - asyncPermits.availablePermits());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        asyncExecutor.shutdown();
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the stats-server connection pool", e);
+        }
+    }
+
+}
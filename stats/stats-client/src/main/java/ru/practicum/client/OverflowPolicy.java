@@ -0,0 +1,10 @@
+package ru.practicum.client;
+
+public enum OverflowPolicy {
+    // The oldest buffered hit makes room for the new one
+    DROP_OLDEST,
+    // The new hit is discarded
+    DROP_NEWEST,
+    // The caller waits until a flush frees space
+    BLOCK
+}
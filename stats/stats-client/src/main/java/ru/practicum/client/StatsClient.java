@@ -1,42 +1,18 @@
 package ru.practicum.client;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
-import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.ViewStatsDto;
 
 import java.util.List;
 import java.util.Map;
 
-@Service
-public class StatsClient extends BaseClient {
+// Implemented over HTTP (HttpStatsClient, the default) or in-process (EmbeddedStatsClient), see stats-server.client.mode
+public interface StatsClient {
+    // Records a hit without waiting for it to be stored
+    void recordHit(EndpointHitDto endpointHitDto);
 
-    @Autowired
-    public StatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
-    }
-
-    public ResponseEntity<Object> addStatistic(EndpointHitDto endpointHitDto) {
-        return post("/hit", endpointHitDto);
-    }
-
-    public ResponseEntity<Object> getStatistic(String start, String end, List<String> uris, Boolean unique) {
-        Map<String, Object> parameters = Map.of(
-                "start", start,
-                "end", end,
-                "uris", String.join(",", uris),
-                "unique", unique
-        );
-        return get("/stats?start={start}&end={end}&uris={uris}&unique={unique}", parameters);
-    }
+    List<ViewStatsDto> getStatistic(String start, String end, List<String> uris, Boolean unique);
 
+    // Hits by uri, summed over apps. Throws StatsServerUnavailableException with the last known hits when degraded
+    Map<String, Long> getHits(String start, String end, List<String> uris, Boolean unique);
 }
@@ -0,0 +1,25 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Registered once the registry exists: StatsClient needs a RestTemplateBuilder, which needs the registry
+@Component
+@ConditionalOnProperty(prefix = "stats-server.client", name = "mode", havingValue = "http", matchIfMissing = true)
+public class StatsClientMetrics {
+
+    public StatsClientMetrics(MeterRegistry registry, HttpStatsClient statsClient) {
+        CircuitBreaker circuitBreaker = statsClient.getCircuitBreaker();
+        Gauge.builder("stats.client.breaker.open", circuitBreaker,
+                        breaker -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while calls to stats-server are refused or probed")
+                .register(registry);
+        FunctionCounter.builder("stats.client.breaker.refused", circuitBreaker, CircuitBreaker::getRefused)
+                .description("Calls refused by the open circuit breaker")
+                .register(registry);
+        statsClient.getHitBuffer().ifPresent(hitBuffer -> hitBuffer.bindTo(registry));
+    }
+}
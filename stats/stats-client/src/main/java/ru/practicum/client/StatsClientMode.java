@@ -0,0 +1,8 @@
+package ru.practicum.client;
+
+public enum StatsClientMode {
+    // Calls a separate stats-server over HTTP
+    HTTP,
+    // Runs the stats-server service layer in this JVM and calls it directly
+    EMBEDDED
+}
@@ -0,0 +1,33 @@
+package ru.practicum.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "stats-server.client")
+public class StatsClientProperties {
+    private StatsClientMode mode = StatsClientMode.HTTP;
+    private int maxConnections = 50;
+    private long connectTimeoutMs = 1000;
+    private long readTimeoutMs = 2000;
+    // How long a request waits for a pooled connection
+    private long connectionRequestTimeoutMs = 500;
+    private long keepAliveMs = 30_000;
+    private int breakerFailureThreshold = 5;
+    private long breakerOpenMs = 10_000;
+    // Hits of this many uris are remembered and served while stats-server is unavailable
+    private int lastKnownCapacity = 10_000;
+    private int asyncThreads = 2;
+    private int asyncMaxPending = 1000;
+    private long asyncTimeoutMs = 2000;
+    // Hits are collected and sent to POST /hits in batches instead of one POST /hit each
+    private boolean bufferEnabled = true;
+    private int bufferCapacity = 10_000;
+    private int batchSize = 500;
+    private long flushIntervalMs = 1000;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+}
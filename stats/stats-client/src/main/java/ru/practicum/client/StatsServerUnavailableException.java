@@ -0,0 +1,21 @@
+package ru.practicum.client;
+
+import java.util.Map;
+
+public class StatsServerUnavailableException extends RuntimeException {
+    // Served by getHits instead of the requested counts, never fresh
+    private final Map<String, Long> lastKnownHits;
+
+    public StatsServerUnavailableException(String message) {
+        this(message, Map.of());
+    }
+
+    public StatsServerUnavailableException(String message, Map<String, Long> lastKnownHits) {
+        super(message);
+        this.lastKnownHits = lastKnownHits;
+    }
+
+    public Map<String, Long> getLastKnownHits() {
+        return lastKnownHits;
+    }
+}
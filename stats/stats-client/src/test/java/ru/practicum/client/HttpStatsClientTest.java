@@ -0,0 +1,144 @@
+package ru.practicum.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HttpStatsClientTest {
+    private static final int CALLERS = 200;
+    private static final long TIMEOUT_MS = 30_000;
+    private static final String START = "2022-09-06 11:00:00";
+    private static final String END = "2022-09-06 12:00:00";
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    // Holds every /stats response until the test lets it go
+    private final CountDownLatch respond = new CountDownLatch(1);
+    private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+    private HttpServer server;
+    private HttpStatsClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/stats", exchange -> {
+            requests.incrementAndGet();
+            try {
+                respond.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (status != 200) {
+                exchange.sendResponseHeaders(status, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "[{\"app\":\"ewm-main-service\",\"uri\":\"/events/1\",\"hits\":42}]"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        StatsClientProperties properties = new StatsClientProperties();
+        properties.setBufferEnabled(false);
+        properties.setReadTimeoutMs(TIMEOUT_MS);
+        client = new HttpStatsClient("http://localhost:" + server.getAddress().getPort(), properties,
+                new RestTemplateBuilder(), new ObjectMapper());
+    }
+
+    @AfterEach
+    void stopServer() {
+        respond.countDown();
+        client.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLookupsOfOneUriShareOneUpstreamRequest() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Thread> callerThreads = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(CALLERS);
+        try {
+            List<Future<Map<String, Long>>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.submit(() -> {
+                    synchronized (callerThreads) {
+                        callerThreads.add(Thread.currentThread());
+                    }
+                    started.countDown();
+                    return client.getHits(START, END, List.of("/events/1"), false);
+                }));
+            }
+
+            // Everyone but the caller that sent the request is parked on its future
+            assertThat(started.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+            awaitUntil(() -> requests.get() == 1 && waiting(callerThreads) == CALLERS - 1);
+            respond.countDown();
+
+            for (Future<Map<String, Long>> result : results) {
+                assertThat(result.get(TIMEOUT_MS, TimeUnit.MILLISECONDS)).containsExactly(Map.entry("/events/1", 42L));
+            }
+            assertThat(requests).hasValue(1);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void onlyServerErrorsAreServedFromLastKnownHits() {
+        respond.countDown();
+        assertThat(client.getHits(START, END, List.of("/events/1"), false)).containsEntry("/events/1", 42L);
+
+        status = 500;
+        assertThatThrownBy(() -> client.getHits(START, END, List.of("/events/1"), false))
+                .isInstanceOfSatisfying(StatsServerUnavailableException.class, e ->
+                        assertThat(e.getLastKnownHits()).containsEntry("/events/1", 42L));
+
+        status = 400;
+        assertThatThrownBy(() -> client.getHits(START, END, List.of("/events/1"), false))
+                .isInstanceOf(HttpClientErrorException.class);
+    }
+
+    private static long waiting(List<Thread> threads) {
+        synchronized (threads) {
+            return threads.stream().filter(thread -> thread.getState() == Thread.State.WAITING).count();
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
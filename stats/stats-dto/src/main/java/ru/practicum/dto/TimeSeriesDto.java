@@ -0,0 +1,28 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// buckets and every series' hits are parallel arrays: hits[i] is the count of the bucket starting at buckets[i]
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TimeSeriesDto {
+    private String granularity;
+    private Boolean unique;
+    private List<String> buckets;
+    private List<Series> series;
+
+    @Getter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Series {
+        private String uri;
+        private long[] hits;
+    }
+}
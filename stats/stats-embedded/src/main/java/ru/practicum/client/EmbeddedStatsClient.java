@@ -0,0 +1,141 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.stereotype.Service;
+import ru.practicum.EmbeddedStatsServer;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.service.StatsService;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Starts the service and repository part of stats-server (EmbeddedStatsServer) inside this JVM, in a context of its
+ * own, and calls its StatsService directly. Properties under stats-server.embedded. are passed to it with the prefix
+ * removed, e.g. stats-server.embedded.spring.datasource.url. Hits are never written on the caller's thread, so a
+ * write cannot join the caller's transaction: they are buffered like over HTTP, or with buffer-enabled=false handed
+ * to async-threads writers, at most async-max-pending at a time.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "stats-server.client", name = "mode", havingValue = "embedded")
+public class EmbeddedStatsClient implements StatsClient {
+    private static final String EMBEDDED_PREFIX = "stats-server.embedded.";
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final StatsClientProperties properties;
+    private final ConfigurableApplicationContext statsContext;
+    private final StatsService statsService;
+    private final HitBuffer hitBuffer;
+    private final ThreadPoolExecutor hitWriter;
+
+    public EmbeddedStatsClient(StatsClientProperties properties, ConfigurableEnvironment environment,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.statsContext = EmbeddedStatsServer.start(meterRegistry, toArguments(environment));
+        this.statsService = statsContext.getBean(StatsService.class);
+        this.hitBuffer = properties.isBufferEnabled()
+                ? new HitBuffer(properties.getBufferCapacity(), properties.getBatchSize(),
+                properties.getFlushIntervalMs(), properties.getOverflowPolicy(), hits -> {
+                    statsService.addStatistics(hits);
+                    return true;
+                })
+                : null;
+        if (hitBuffer != null) {
+            hitBuffer.bindTo(meterRegistry);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hitWriter = hitBuffer != null ? null : new ThreadPoolExecutor(properties.getAsyncThreads(),
+                properties.getAsyncThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getAsyncMaxPending()), runnable -> {
+            Thread thread = new Thread(runnable, "embedded-stats-writer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Started embedded stats service");
+    }
+
+    // Passed as command line arguments, so they take precedence over the defaults of EmbeddedStatsServer
+    private static String[] toArguments(ConfigurableEnvironment environment) {
+        Map<String, Object> embedded = new LinkedHashMap<>();
+        for (PropertySource<?> propertySource : environment.getPropertySources()) {
+            if (propertySource instanceof EnumerablePropertySource) {
+                for (String name : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+                    if (name.startsWith(EMBEDDED_PREFIX)) {
+                        embedded.putIfAbsent(name.substring(EMBEDDED_PREFIX.length()), environment.getProperty(name));
+                    }
+                }
+            }
+        }
+        List<String> arguments = new ArrayList<>();
+        embedded.forEach((name, value) -> arguments.add("--" + name + "=" + value));
+        return arguments.toArray(new String[0]);
+    }
+
+    @Override
+    public void recordHit(EndpointHitDto endpointHitDto) {
+        if (hitBuffer != null) {
+            hitBuffer.offer(endpointHitDto);
+            return;
+        }
+        try {
+            hitWriter.execute(() -> {
+                try {
+                    statsService.addStatistic(endpointHitDto);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to add statistic for uri {}: {}", endpointHitDto.getUri(), e.toString());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Dropped hit for uri {}: too many pending hits", endpointHitDto.getUri());
+        }
+    }
+
+    @Override
+    public List<ViewStatsDto> getStatistic(String start, String end, List<String> uris, Boolean unique) {
+        return statsService.getStatistic(LocalDateTime.parse(start, DATE_TIME_FORMATTER),
+                LocalDateTime.parse(end, DATE_TIME_FORMATTER), uris, unique, false);
+    }
+
+    @Override
+    public Map<String, Long> getHits(String start, String end, List<String> uris, Boolean unique) {
+        Map<String, Long> hits = new HashMap<>();
+        for (ViewStatsDto viewStatsDto : getStatistic(start, end, uris, unique)) {
+            hits.merge(viewStatsDto.getUri(), viewStatsDto.getHits(), Long::sum);
+        }
+        return hits;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (hitBuffer != null) {
+            hitBuffer.close(0);
+        } else {
+            hitWriter.shutdown();
+            try {
+                hitWriter.awaitTermination(properties.getAsyncTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        statsContext.close();
+    }
+}
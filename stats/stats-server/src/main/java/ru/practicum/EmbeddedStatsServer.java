@@ -0,0 +1,70 @@
+package ru.practicum;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.ConfigurationPropertiesAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import ru.practicum.archive.ArchiveProperties;
+import ru.practicum.archive.ArchiveStore;
+import ru.practicum.cache.StatsQueryCache;
+import ru.practicum.ingestion.IngestionLimiter;
+import ru.practicum.ingestion.IngestionProperties;
+import ru.practicum.mapper.EndpointHitMapper;
+import ru.practicum.metrics.StatsMetrics;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.repository.StatsRepository;
+import ru.practicum.service.StatsService;
+import ru.practicum.window.SlidingWindowCounters;
+
+import java.util.Map;
+
+/*
+ * The part of stats-server an application runs in-process: StatsService with its repositories, caches and window
+ * counters over a DataSource of its own. Controllers, ingestion queues, the journal, scheduled jobs and partition
+ * maintenance stay in StatsServer. The embedding application keeps its classes in packages of its own (main-service
+ * in ru.practicum.ewm), so the scan below finds stats classes only; not a @Configuration, so StatsServer does not
+ * pick it up.
+ * No configuration file is read: the slice starts from the settings below, the arguments go on top of them.
+ */
+@ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, ConfigurationPropertiesAutoConfiguration.class,
+        DataSourceAutoConfiguration.class, SqlInitializationAutoConfiguration.class,
+        JdbcTemplateAutoConfiguration.class, HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class})
+@ComponentScan(basePackageClasses = {StatsQueryCache.class, EndpointHitMapper.class, StatsRepository.class,
+        StatsService.class, SlidingWindowCounters.class})
+@Import({ArchiveProperties.class, ArchiveStore.class, IngestionLimiter.class, IngestionProperties.class,
+        StatsMetrics.class})
+@EntityScan(basePackageClasses = EndpointHit.class)
+@EnableJpaRepositories(basePackageClasses = StatsRepository.class)
+public class EmbeddedStatsServer {
+    private static final Map<String, Object> DEFAULTS = Map.of(
+            "spring.config.name", "embedded-stats-server",
+            "spring.sql.init.mode", "always",
+            "spring.sql.init.schema-locations", "classpath:stats-schema.sql",
+            "spring.jpa.hibernate.ddl-auto", "none",
+            "spring.datasource.hikari.pool-name", "embedded-stats",
+            "spring.datasource.hikari.data-source-properties.reWriteBatchedInserts", "true");
+
+    // Closed by the caller, together with the embedding application
+    public static ConfigurableApplicationContext start(MeterRegistry meterRegistry, String... args) {
+        return new SpringApplicationBuilder(EmbeddedStatsServer.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .registerShutdownHook(false)
+                .properties(DEFAULTS)
+                .initializers(context -> context.getBeanFactory().registerSingleton("meterRegistry", meterRegistry))
+                .run(args);
+    }
+}
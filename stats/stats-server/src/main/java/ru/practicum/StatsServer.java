@@ -1,11 +1,18 @@
 package ru.practicum;
 
-import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @SpringBootApplication
 public class StatsServer {
+    // Not application.properties, so the service can share a classpath with another application
+    public static final String CONFIG_NAME = "stats-server";
+
     public static void main(String[] args) {
-        SpringApplication.run(StatsServer.class, args);
+        new SpringApplicationBuilder(StatsServer.class)
+                .properties("spring.config.name=" + CONFIG_NAME)
+                .run(args);
     }
 }
@@ -0,0 +1,132 @@
+package ru.practicum.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.repository.ArchiveRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ArchiveExporter {
+    private static final DateTimeFormatter NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final ArchiveRepository archiveRepository;
+    private final ArchiveStore archiveStore;
+    private final ArchiveProperties properties;
+
+    /*
+     * Moves hits older than the cutoff into segments. Repeatable read keeps the export and the delete on the same
+     * snapshot, so a hit inserted meanwhile is neither deleted unexported nor exported twice. Segment names are
+     * registered in the same transaction; files of an export that did not commit are removed on rollback or on the
+     * next start.
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public int export(LocalDateTime cutoff) {
+        Export export = new Export(archiveStore.getDirectory(), cutoff);
+        try {
+            Files.createDirectories(archiveStore.getDirectory());
+            archiveRepository.forEachHitBefore(cutoff, export::add);
+            export.finish();
+        } catch (IOException e) {
+            deleteFiles(export.written);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteFiles(export.written);
+            throw e;
+        }
+        if (export.written.isEmpty()) {
+            return 0;
+        }
+
+        /*
+         * Served once the delete has committed: queries count table rows before the watermark too (hits stored late),
+         * so the exported rows must not be visible in both places.
+         */
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    archiveStore.add(export.written);
+                } else {
+                    deleteFiles(export.written);
+                }
+            }
+        });
+        int deleted = archiveRepository.deleteHitsBefore(cutoff);
+        if (deleted != export.rows) {
+            throw new IllegalStateException("Exported " + export.rows + " hits but deleted " + deleted);
+        }
+        log.info("Archived {} hits older than {} into {} segments", export.rows, cutoff, export.written.size());
+        return export.rows;
+    }
+
+    // Rolls over to a new segment every maxRowsPerSegment rows
+    private class Export {
+        private final Path directory;
+        private final LocalDateTime cutoff;
+        private final String prefix;
+        private final List<ArchiveSegment> written = new ArrayList<>();
+        private ArchiveSegmentWriter writer = new ArchiveSegmentWriter();
+        private int rows;
+
+        private Export(Path directory, LocalDateTime cutoff) {
+            this.directory = directory;
+            this.cutoff = cutoff;
+            this.prefix = "archive-" + NAME_FORMATTER.format(cutoff) + "-" + System.currentTimeMillis() + "-";
+        }
+
+        private void add(ResultSet rs) throws SQLException {
+            try {
+                writer.add(rs.getString("app"), rs.getString("uri"), rs.getBytes("ip"),
+                        rs.getTimestamp("created").toLocalDateTime());
+                if (writer.getRows() == properties.getMaxRowsPerSegment()) {
+                    finish();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void finish() throws IOException {
+            if (writer.getRows() == 0) {
+                return;
+            }
+            String name = prefix + written.size();
+            Path temp = directory.resolve(name + ArchiveStore.TEMP_SUFFIX);
+            Path file = directory.resolve(name + ArchiveStore.SEGMENT_SUFFIX);
+            writer.writeTo(temp, cutoff);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            archiveRepository.registerSegment(file.getFileName().toString(), cutoff, writer.getRows());
+            written.add(ArchiveSegment.open(file));
+            rows += writer.getRows();
+            writer = new ArchiveSegmentWriter();
+        }
+    }
+
+    private void deleteFiles(List<ArchiveSegment> segments) {
+        for (ArchiveSegment segment : segments) {
+            try {
+                Files.deleteIfExists(segment.getPath());
+            } catch (IOException e) {
+                log.error("Failed to delete archive segment {}", segment.getPath(), e);
+            }
+        }
+    }
+}
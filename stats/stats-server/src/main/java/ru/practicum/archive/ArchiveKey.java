@@ -0,0 +1,16 @@
+package ru.practicum.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+// Archived hits keep the app and uri strings: dictionary ids are not stable across database rebuilds
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class ArchiveKey {
+    private final String app;
+    private final String uri;
+}
@@ -0,0 +1,46 @@
+package ru.practicum.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.ingestion.IngestionLimiter;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArchiveManager {
+    private final ArchiveExporter archiveExporter;
+    private final ArchiveStore archiveStore;
+    private final ArchiveProperties properties;
+    private final IngestionLimiter ingestionLimiter;
+
+    @Scheduled(cron = "${stats-server.archive.cron:0 30 3 * * *}")
+    public synchronized void archive() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getOlderThan()).truncatedTo(ChronoUnit.DAYS);
+        // Never behind the watermark: hits that arrived late for an archived range are still picked up
+        LocalDateTime watermark = archiveStore.getWatermark();
+        if (watermark != null && watermark.isAfter(cutoff)) {
+            cutoff = watermark;
+        }
+        try {
+            ingestionLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            archiveExporter.export(cutoff);
+        } catch (RuntimeException e) {
+            log.error("Failed to archive hits older than {}", cutoff, e);
+        } finally {
+            ingestionLimiter.release();
+        }
+    }
+}
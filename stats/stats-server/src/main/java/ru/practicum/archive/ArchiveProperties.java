@@ -0,0 +1,22 @@
+package ru.practicum.archive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "stats-server.archive")
+public class ArchiveProperties {
+    private boolean enabled = true;
+    private String directory = "archive";
+    // Hits older than this (floored to the day) are moved out of ENDPOINT_HIT
+    private Duration olderThan = Duration.ofDays(365);
+    private int maxRowsPerSegment = 1_000_000;
+    // Decoded segments kept in memory
+    private int cachedSegments = 8;
+}
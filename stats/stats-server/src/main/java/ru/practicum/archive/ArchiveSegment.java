@@ -0,0 +1,208 @@
+package ru.practicum.archive;
+
+import lombok.Getter;
+import ru.practicum.model.RollupGranularity;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/*
+ * Column-oriented file of archived hits, rows sorted by uri:
+ *   header (plain): magic, version, to, min/max created, rows, min/max uri
+ *   body (gzip):    app and uri dictionaries, ip dictionary (16 bytes each),
+ *                   uri runs and app runs (dictionary index, length), created deltas, ip indexes (0 for none)
+ * The header is the segment's min/max index; uri runs let a query skip every row of an unrequested uri.
+ */
+@Getter
+public class ArchiveSegment {
+    static final int MAGIC = 0x45574d41;
+    static final int VERSION = 1;
+
+    private final Path path;
+    // Every hit older than this was in ENDPOINT_HIT when the segment was written
+    private final LocalDateTime to;
+    private final LocalDateTime minCreated;
+    private final LocalDateTime maxCreated;
+    private final int rows;
+    private final String minUri;
+    private final String maxUri;
+
+    private ArchiveSegment(Path path, LocalDateTime to, LocalDateTime minCreated, LocalDateTime maxCreated, int rows,
+                           String minUri, String maxUri) {
+        this.path = path;
+        this.to = to;
+        this.minCreated = minCreated;
+        this.maxCreated = maxCreated;
+        this.rows = rows;
+        this.minUri = minUri;
+        this.maxUri = maxUri;
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            readHeader(in);
+            return new ArchiveSegment(path, fromMicros(in.readLong()), fromMicros(in.readLong()),
+                    fromMicros(in.readLong()), in.readInt(), in.readUTF(), in.readUTF());
+        }
+    }
+
+    // [from, to) against the min/max index
+    boolean overlaps(LocalDateTime from, LocalDateTime to, Collection<String> uris) {
+        if (!minCreated.isBefore(to) || maxCreated.isBefore(from)) {
+            return false;
+        }
+        return uris == null || uris.stream().anyMatch(uri -> uri.compareTo(minUri) >= 0 && uri.compareTo(maxUri) <= 0);
+    }
+
+    Columns decode() throws IOException {
+        try (InputStream file = Files.newInputStream(path)) {
+            DataInputStream header = new DataInputStream(file);
+            readHeader(header);
+            header.readLong();
+            header.readLong();
+            header.readLong();
+            header.readInt();
+            header.readUTF();
+            header.readUTF();
+            return new Columns(new DataInputStream(new BufferedInputStream(new GZIPInputStream(file))), rows);
+        }
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+
+    private static void readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an archive segment");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported archive segment version " + version);
+        }
+    }
+
+    // Decoded columns; app runs are expanded to one index per row since they never cross a uri run
+    static class Columns {
+        private final String[] apps;
+        private final String[] uris;
+        private final ByteBuffer[] ips;
+        private final int[] uriRunValues;
+        private final int[] uriRunLengths;
+        private final int[] appIndexes;
+        private final long[] created;
+        private final int[] ipIndexes;
+
+        private Columns(DataInputStream in, int rows) throws IOException {
+            apps = readDictionary(in);
+            uris = readDictionary(in);
+            ips = new ByteBuffer[in.readInt()];
+            for (int i = 0; i < ips.length; i++) {
+                byte[] ip = new byte[16];
+                in.readFully(ip);
+                ips[i] = ByteBuffer.wrap(ip).asReadOnlyBuffer();
+            }
+            int uriRunCount = in.readInt();
+            uriRunValues = new int[uriRunCount];
+            uriRunLengths = new int[uriRunCount];
+            for (int i = 0; i < uriRunCount; i++) {
+                uriRunValues[i] = (int) Varints.readUnsigned(in);
+                uriRunLengths[i] = (int) Varints.readUnsigned(in);
+            }
+            appIndexes = new int[rows];
+            int appRunCount = in.readInt();
+            for (int i = 0, row = 0; i < appRunCount; i++) {
+                int app = (int) Varints.readUnsigned(in);
+                int length = (int) Varints.readUnsigned(in);
+                for (int j = 0; j < length; j++) {
+                    appIndexes[row++] = app;
+                }
+            }
+            created = new long[rows];
+            long previous = 0;
+            for (int row = 0; row < rows; row++) {
+                previous += Varints.readSigned(in);
+                created[row] = previous;
+            }
+            ipIndexes = new int[rows];
+            for (int row = 0; row < rows; row++) {
+                ipIndexes[row] = (int) Varints.readUnsigned(in) - 1;
+            }
+        }
+
+        // Hits with an ip in [from, to), like count(ip) on the hot table
+        void count(LocalDateTime from, LocalDateTime to, Set<String> uriFilter, Map<ArchiveKey, Long> counts) {
+            forEachRow(from, to, uriFilter, (key, row) -> counts.merge(key, 1L, Long::sum));
+        }
+
+        void collectIps(LocalDateTime from, LocalDateTime to, Set<String> uriFilter,
+                        Map<ArchiveKey, Set<ByteBuffer>> distinctIps) {
+            forEachRow(from, to, uriFilter, (key, row) ->
+                    distinctIps.computeIfAbsent(key, k -> new HashSet<>()).add(ips[ipIndexes[row]]));
+        }
+
+        void collectIps(LocalDateTime from, LocalDateTime to, Set<String> uriFilter, RollupGranularity granularity,
+                        Map<String, Map<LocalDateTime, Set<ByteBuffer>>> distinctIps) {
+            forEachRow(from, to, uriFilter, (key, row) -> distinctIps
+                    .computeIfAbsent(key.getUri(), uri -> new HashMap<>())
+                    .computeIfAbsent(granularity.floor(fromMicros(created[row])), bucket -> new HashSet<>())
+                    .add(ips[ipIndexes[row]]));
+        }
+
+        private void forEachRow(LocalDateTime from, LocalDateTime to, Set<String> uriFilter, RowVisitor visitor) {
+            long fromMicros = toMicros(from);
+            long toMicros = toMicros(to);
+            ArchiveKey[] keys = new ArchiveKey[apps.length];
+            int row = 0;
+            for (int run = 0; run < uriRunValues.length; run++) {
+                String uri = uris[uriRunValues[run]];
+                int end = row + uriRunLengths[run];
+                if (uriFilter == null || uriFilter.contains(uri)) {
+                    int lastApp = -1;
+                    for (; row < end; row++) {
+                        if (ipIndexes[row] < 0 || created[row] < fromMicros || created[row] >= toMicros) {
+                            continue;
+                        }
+                        int app = appIndexes[row];
+                        if (app != lastApp) {
+                            keys[app] = new ArchiveKey(apps[app], uri);
+                            lastApp = app;
+                        }
+                        visitor.visit(keys[app], row);
+                    }
+                }
+                row = end;
+            }
+        }
+
+        private static String[] readDictionary(DataInputStream in) throws IOException {
+            String[] values = new String[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readUTF();
+            }
+            return values;
+        }
+    }
+
+    private interface RowVisitor {
+        void visit(ArchiveKey key, int row);
+    }
+}
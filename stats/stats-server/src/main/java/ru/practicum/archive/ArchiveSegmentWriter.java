@@ -0,0 +1,136 @@
+package ru.practicum.archive;
+
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Builds one segment from hits fed in (uri, app, created) order; columns are encoded as the rows arrive
+class ArchiveSegmentWriter {
+    private final Map<String, Integer> apps = new LinkedHashMap<>();
+    private final Map<String, Integer> uris = new LinkedHashMap<>();
+    private final Map<ByteBuffer, Integer> ips = new LinkedHashMap<>();
+    private final Column uriRuns = new Column();
+    private final Column appRuns = new Column();
+    private final Column created = new Column();
+    private final Column ipIndexes = new Column();
+    private int uriRunCount;
+    private int appRunCount;
+    private int currentUri = -1;
+    private int currentUriLength;
+    private int currentApp = -1;
+    private int currentAppLength;
+    private long previousCreated;
+    @Getter
+    private int rows;
+    private long minCreated = Long.MAX_VALUE;
+    private long maxCreated = Long.MIN_VALUE;
+    private String minUri;
+    private String maxUri;
+
+    void add(String app, String uri, byte[] ip, LocalDateTime timestamp) throws IOException {
+        int uriIndex = uris.computeIfAbsent(uri, key -> uris.size());
+        int appIndex = apps.computeIfAbsent(app, key -> apps.size());
+        if (uriIndex != currentUri) {
+            flushUriRun();
+            flushAppRun();
+            currentUri = uriIndex;
+        } else if (appIndex != currentApp) {
+            flushAppRun();
+        }
+        currentApp = appIndex;
+        currentUriLength++;
+        currentAppLength++;
+
+        long micros = ArchiveSegment.toMicros(timestamp);
+        Varints.writeSigned(created.out, micros - previousCreated);
+        previousCreated = micros;
+        Varints.writeUnsigned(ipIndexes.out, ip == null ? 0 : ips.computeIfAbsent(ByteBuffer.wrap(ip),
+                key -> ips.size()) + 1);
+
+        rows++;
+        minCreated = Math.min(minCreated, micros);
+        maxCreated = Math.max(maxCreated, micros);
+        minUri = minUri == null || uri.compareTo(minUri) < 0 ? uri : minUri;
+        maxUri = maxUri == null || uri.compareTo(maxUri) > 0 ? uri : maxUri;
+    }
+
+    // The header stays uncompressed, so the min/max index can be read without inflating the columns
+    void writeTo(Path file, LocalDateTime to) throws IOException {
+        flushUriRun();
+        flushAppRun();
+        try (OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(ArchiveSegment.MAGIC);
+            out.writeInt(ArchiveSegment.VERSION);
+            out.writeLong(ArchiveSegment.toMicros(to));
+            out.writeLong(minCreated);
+            out.writeLong(maxCreated);
+            out.writeInt(rows);
+            out.writeUTF(minUri);
+            out.writeUTF(maxUri);
+            out.flush();
+
+            GZIPOutputStream compressed = new GZIPOutputStream(stream);
+            DataOutputStream body = new DataOutputStream(compressed);
+            writeDictionary(body, apps);
+            writeDictionary(body, uris);
+            body.writeInt(ips.size());
+            for (ByteBuffer ip : ips.keySet()) {
+                body.write(ip.array());
+            }
+            body.writeInt(uriRunCount);
+            uriRuns.bytes.writeTo(body);
+            body.writeInt(appRunCount);
+            appRuns.bytes.writeTo(body);
+            created.bytes.writeTo(body);
+            ipIndexes.bytes.writeTo(body);
+            body.flush();
+            compressed.finish();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private void flushUriRun() throws IOException {
+        if (currentUriLength > 0) {
+            Varints.writeUnsigned(uriRuns.out, currentUri);
+            Varints.writeUnsigned(uriRuns.out, currentUriLength);
+            uriRunCount++;
+            currentUriLength = 0;
+        }
+    }
+
+    private void flushAppRun() throws IOException {
+        if (currentAppLength > 0) {
+            Varints.writeUnsigned(appRuns.out, currentApp);
+            Varints.writeUnsigned(appRuns.out, currentAppLength);
+            appRunCount++;
+            currentAppLength = 0;
+        }
+    }
+
+    private static void writeDictionary(DataOutputStream out, Map<String, Integer> dictionary) throws IOException {
+        out.writeInt(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static class Column {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+    }
+}
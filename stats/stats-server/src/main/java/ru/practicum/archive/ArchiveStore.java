@@ -0,0 +1,148 @@
+package ru.practicum.archive;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.repository.ArchiveRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Archive segments on local disk. The watermark is the newest segment's "to": hits before it are answered from
+ * the archive plus the rows of that range still in ENDPOINT_HIT, which are hits stored after the export (late
+ * replays, backfills) and go into the next one. Segments are served only after their export committed, so an
+ * exported row is never in both places.
+ */
+@Slf4j
+@Component
+public class ArchiveStore {
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private final ArchiveProperties properties;
+    private final ArchiveRepository archiveRepository;
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private final LoadingCache<Path, ArchiveSegment.Columns> columns;
+    private volatile LocalDateTime watermark;
+
+    public ArchiveStore(ArchiveProperties properties, ArchiveRepository archiveRepository) {
+        this.properties = properties;
+        this.archiveRepository = archiveRepository;
+        this.columns = Caffeine.newBuilder()
+                .maximumSize(properties.getCachedSegments())
+                .build(this::decode);
+    }
+
+    // Segments whose export never committed are removed, the rest are served
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path directory = getDirectory();
+        Files.createDirectories(directory);
+        Set<String> committed = archiveRepository.findSegmentNames();
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(SEGMENT_SUFFIX) && committed.contains(name)) {
+                segments.add(ArchiveSegment.open(file));
+            } else if (name.endsWith(SEGMENT_SUFFIX) || name.endsWith(TEMP_SUFFIX)) {
+                log.warn("Removing uncommitted archive segment {}", name);
+                Files.delete(file);
+            }
+        }
+        updateWatermark();
+        log.info("Loaded {} archive segments, watermark {}", segments.size(), watermark);
+    }
+
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    // Hits in [from, to) per app and uri; uris null means all
+    public Map<ArchiveKey, Long> count(LocalDateTime from, LocalDateTime to, Collection<String> uris) {
+        Map<ArchiveKey, Long> counts = new HashMap<>();
+        Set<String> uriFilter = uris == null ? null : Set.copyOf(uris);
+        for (ArchiveSegment segment : segments) {
+            if (segment.overlaps(from, to, uris)) {
+                columns.get(segment.getPath()).count(from, to, uriFilter, counts);
+            }
+        }
+        return counts;
+    }
+
+    public Map<ArchiveKey, Set<ByteBuffer>> collectIps(LocalDateTime from, LocalDateTime to, Collection<String> uris) {
+        Map<ArchiveKey, Set<ByteBuffer>> distinctIps = new HashMap<>();
+        Set<String> uriFilter = uris == null ? null : Set.copyOf(uris);
+        for (ArchiveSegment segment : segments) {
+            if (segment.overlaps(from, to, uris)) {
+                columns.get(segment.getPath()).collectIps(from, to, uriFilter, distinctIps);
+            }
+        }
+        return distinctIps;
+    }
+
+    // Distinct ips per uri and bucket of the granularity, all apps together
+    public Map<String, Map<LocalDateTime, Set<ByteBuffer>>> collectIps(LocalDateTime from, LocalDateTime to,
+                                                                        Collection<String> uris,
+                                                                        RollupGranularity granularity) {
+        Map<String, Map<LocalDateTime, Set<ByteBuffer>>> distinctIps = new HashMap<>();
+        Set<String> uriFilter = uris == null ? null : Set.copyOf(uris);
+        for (ArchiveSegment segment : segments) {
+            if (segment.overlaps(from, to, uris)) {
+                columns.get(segment.getPath()).collectIps(from, to, uriFilter, granularity, distinctIps);
+            }
+        }
+        return distinctIps;
+    }
+
+    Path getDirectory() {
+        return Paths.get(properties.getDirectory());
+    }
+
+    void add(List<ArchiveSegment> added) {
+        segments.addAll(added);
+        updateWatermark();
+    }
+
+    private void updateWatermark() {
+        watermark = segments.stream()
+                .map(ArchiveSegment::getTo)
+                .max(LocalDateTime::compareTo)
+                .orElse(null);
+    }
+
+    private ArchiveSegment.Columns decode(Path path) {
+        try {
+            return segments.stream()
+                    .filter(segment -> segment.getPath().equals(path))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Unknown archive segment " + path))
+                    .decode();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "stats-server.cache")
+public class CacheProperties {
+    private boolean enabled = true;
+    // start and end are floored to this step, so requests within one bucket share an entry
+    private Duration bucket = Duration.ofSeconds(30);
+    // Unique requests with unaligned bounds are answered for the floored range, up to one bucket behind, and cached
+    private boolean floorUnique = true;
+    private long maxEntries = 10_000;
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,189 @@
+package ru.practicum.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/*
+ * Result cache for /stats. Only ranges that have fully elapsed are cached, so hits arriving in real time never touch
+ * a cached entry. Non-unique counts add up: the bucket-aligned interior of a request comes from the cache and the
+ * partial buckets at its edges are loaded exactly. Unique counts do not: with floor-unique they are answered for the
+ * range with both bounds floored to the bucket, at most one bucket behind, otherwise only requests whose bounds are
+ * aligned already are cached. A committed hit that is older than the current bucket invalidates the entries
+ * covering it and marks its uri, which keeps a load that raced with the commit from caching what it read before it.
+ */
+@Slf4j
+@Component
+public class StatsQueryCache {
+    private static final Comparator<ViewStatsDto> MOST_HITS_FIRST =
+            Comparator.comparing(ViewStatsDto::getHits, Comparator.reverseOrder());
+
+    private final CacheProperties properties;
+    private final Cache<StatsQueryKey, List<ViewStatsDto>> cache;
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final Map<String, Long> lastWriteByUri = new ConcurrentHashMap<>();
+    private volatile long lastWrite;
+
+    public StatsQueryCache(CacheProperties properties) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    // The loader takes an inclusive range, like the one passed in
+    public List<ViewStatsDto> get(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                  boolean approximate,
+                                  BiFunction<LocalDateTime, LocalDateTime, List<ViewStatsDto>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.apply(start, end);
+        }
+        LocalDateTime elapsed = floor(LocalDateTime.now());
+        if (unique) {
+            if (start.equals(floor(start)) && end.equals(floor(end)) && end.isBefore(elapsed)) {
+                return getCached(start, end.plus(1, ChronoUnit.MICROS), uris, true, approximate, loader);
+            }
+            LocalDateTime flooredStart = floor(start);
+            LocalDateTime flooredEnd = floor(end);
+            if (!properties.isFloorUnique() || !flooredStart.isBefore(flooredEnd) || flooredEnd.isAfter(elapsed)) {
+                return loader.apply(start, end);
+            }
+            return getCached(flooredStart, flooredEnd, uris, true, approximate, loader);
+        }
+
+        LocalDateTime interiorStart = ceil(start);
+        LocalDateTime interiorEnd = floor(end);
+        if (!interiorStart.isBefore(interiorEnd) || interiorEnd.isAfter(elapsed)) {
+            return loader.apply(start, end);
+        }
+        List<ViewStatsDto> interior = getCached(interiorStart, interiorEnd, uris, false, approximate, loader);
+        List<ViewStatsDto> after = loader.apply(interiorEnd, end);
+        if (start.isBefore(interiorStart)) {
+            return sum(List.of(interior, loader.apply(start, interiorStart.minus(1, ChronoUnit.MICROS)), after));
+        }
+        return sum(List.of(interior, after));
+    }
+
+    // [start, end), the end is exclusive here
+    private List<ViewStatsDto> getCached(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                         boolean approximate,
+                                         BiFunction<LocalDateTime, LocalDateTime, List<ViewStatsDto>> loader) {
+        List<String> normalizedUris = uris == null
+                ? null
+                : uris.stream().distinct().sorted().collect(Collectors.toList());
+        StatsQueryKey key = new StatsQueryKey(start, end, normalizedUris, unique, approximate);
+
+        List<ViewStatsDto> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long sequence = writeSequence.get();
+        List<ViewStatsDto> loaded = loader.apply(start, end.minus(1, ChronoUnit.MICROS));
+        if (!writtenSince(key, sequence)) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    // Must be called after the hits are committed
+    public void onHitsCommitted(List<EndpointHit> hits) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDateTime currentBucket = floor(LocalDateTime.now());
+        Set<String> uris = new HashSet<>();
+        LocalDateTime earliest = null;
+        LocalDateTime latest = null;
+        for (EndpointHit hit : hits) {
+            if (hit.getUri() == null || !hit.getTimestamp().isBefore(currentBucket)) {
+                continue;
+            }
+            uris.add(hit.getUri());
+            if (earliest == null || hit.getTimestamp().isBefore(earliest)) {
+                earliest = hit.getTimestamp();
+            }
+            if (latest == null || hit.getTimestamp().isAfter(latest)) {
+                latest = hit.getTimestamp();
+            }
+        }
+        if (uris.isEmpty()) {
+            return;
+        }
+
+        long sequence = writeSequence.incrementAndGet();
+        uris.forEach(uri -> lastWriteByUri.put(uri, sequence));
+        lastWrite = sequence;
+
+        // One pass over the keys per batch; an entry overlapping the batch's time span is dropped even if it falls
+        // between two of its hits
+        LocalDateTime from = earliest;
+        LocalDateTime to = latest;
+        cache.asMap().keySet().removeIf(key -> key.overlaps(uris, from, to));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    private boolean writtenSince(StatsQueryKey key, long sequence) {
+        if (key.getUris() == null) {
+            return lastWrite > sequence;
+        }
+        return key.getUris().stream()
+                .anyMatch(uri -> lastWriteByUri.getOrDefault(uri, 0L) > sequence);
+    }
+
+    private List<ViewStatsDto> sum(List<List<ViewStatsDto>> parts) {
+        Map<List<String>, Long> hits = new HashMap<>();
+        for (List<ViewStatsDto> part : parts) {
+            for (ViewStatsDto viewStatsDto : part) {
+                hits.merge(Arrays.asList(viewStatsDto.getApp(), viewStatsDto.getUri()), viewStatsDto.getHits(),
+                        Long::sum);
+            }
+        }
+        return hits.entrySet().stream()
+                .map(entry -> new ViewStatsDto(entry.getKey().get(0), entry.getKey().get(1), entry.getValue()))
+                .sorted(MOST_HITS_FIRST)
+                .collect(Collectors.toList());
+    }
+
+    private LocalDateTime ceil(LocalDateTime dateTime) {
+        LocalDateTime floor = floor(dateTime);
+        return floor.equals(dateTime) ? floor : floor.plus(properties.getBucket());
+    }
+
+    private LocalDateTime floor(LocalDateTime dateTime) {
+        long bucketSeconds = Math.max(1, properties.getBucket().getSeconds());
+        long epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochSecond, bucketSeconds) * bucketSeconds, 0, ZoneOffset.UTC);
+    }
+}
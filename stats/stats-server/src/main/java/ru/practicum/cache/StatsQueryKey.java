@@ -0,0 +1,29 @@
+package ru.practicum.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+// Normalized query: [start, end) in whole cache buckets, uris sorted and deduplicated (null means all)
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class StatsQueryKey {
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final List<String> uris;
+    private final boolean unique;
+    private final boolean approximate;
+
+    // Whether hits of these uris between from and to, both inclusive, may be counted in this entry
+    public boolean overlaps(Set<String> hitUris, LocalDateTime from, LocalDateTime to) {
+        return !to.isBefore(start) && from.isBefore(end)
+                && (uris == null || uris.stream().anyMatch(hitUris::contains));
+    }
+}
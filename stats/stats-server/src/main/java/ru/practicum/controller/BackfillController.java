@@ -0,0 +1,71 @@
+package ru.practicum.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.ingestion.IngestionLimiter;
+import ru.practicum.ingestion.IngestionProperties;
+import ru.practicum.service.StatsService;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Bulk import of historical hits; chunks are large enough to always go through COPY
+@Slf4j
+@RestController
+@RequestMapping(path = "/admin/backfill")
+@RequiredArgsConstructor
+public class BackfillController {
+    private final StatsService statsService;
+    private final IngestionProperties ingestionProperties;
+    private final IngestionLimiter ingestionLimiter;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(consumes = StatsController.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Map<String, Object>> backfill(HttpServletRequest request)
+            throws IOException, InterruptedException {
+        int batchSize = ingestionProperties.getBackfillBatchSize();
+        long started = System.nanoTime();
+        int total = 0;
+        List<EndpointHitDto> chunk = new ArrayList<>(batchSize);
+        try (MappingIterator<EndpointHitDto> iterator = objectMapper.readerFor(EndpointHitDto.class)
+                .readValues(request.getInputStream())) {
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == batchSize) {
+                    total += write(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            total += write(chunk);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info("Backfilled {} hits in {} s", total, seconds);
+        return ResponseEntity.ok(Map.of(
+                "hits", total,
+                "seconds", seconds,
+                "hitsPerSecond", seconds > 0 ? Math.round(total / seconds) : total
+        ));
+    }
+
+    // Each chunk waits for a write slot like /hit does, so a backfill cannot take the whole pool
+    private int write(List<EndpointHitDto> chunk) throws InterruptedException {
+        ingestionLimiter.acquire();
+        try {
+            return statsService.addStatistics(chunk);
+        } finally {
+            ingestionLimiter.release();
+        }
+    }
+}
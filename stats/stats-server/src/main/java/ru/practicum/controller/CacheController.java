@@ -0,0 +1,42 @@
+package ru.practicum.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.cache.StatsQueryCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping(path = "/admin/cache")
+@RequiredArgsConstructor
+public class CacheController {
+    private final StatsQueryCache statsQueryCache;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        CacheStats stats = statsQueryCache.getStats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", statsQueryCache.getSize());
+        body.put("hits", stats.hitCount());
+        body.put("misses", stats.missCount());
+        body.put("hitRatio", stats.hitRate());
+        body.put("missRatio", stats.missRate());
+        body.put("evictions", stats.evictionCount());
+        return ResponseEntity.ok(body);
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> invalidate() {
+        log.info("Invalidate stats query cache");
+        statsQueryCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
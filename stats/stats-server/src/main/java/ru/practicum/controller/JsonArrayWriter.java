@@ -0,0 +1,49 @@
+package ru.practicum.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+// Writes a JSON array element by element. The output is opened lazily, so an exception thrown
+// before the first element still reaches the error handler with an untouched response.
+class JsonArrayWriter<T> implements Consumer<T> {
+    private final ObjectMapper objectMapper;
+    private final OutputSupplier outputSupplier;
+    private JsonGenerator generator;
+
+    JsonArrayWriter(ObjectMapper objectMapper, OutputSupplier outputSupplier) {
+        this.objectMapper = objectMapper;
+        this.outputSupplier = outputSupplier;
+    }
+
+    @Override
+    public void accept(T element) {
+        try {
+            open().writeObject(element);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void finish() throws IOException {
+        open().writeEndArray();
+        generator.close();
+    }
+
+    private JsonGenerator open() throws IOException {
+        if (generator == null) {
+            generator = objectMapper.getFactory().createGenerator(outputSupplier.get());
+            generator.writeStartArray();
+        }
+        return generator;
+    }
+
+    @FunctionalInterface
+    interface OutputSupplier {
+        OutputStream get() throws IOException;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.cache.StatsQueryCache;
+import ru.practicum.ingestion.IngestionLimiter;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.service.RollupService;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping(path = "/admin/rollups")
+@RequiredArgsConstructor
+public class RollupController {
+    private final RollupService rollupService;
+    private final StatsQueryCache statsQueryCache;
+    private final IngestionLimiter ingestionLimiter;
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<RollupGranularity, Integer>> rebuild() throws InterruptedException {
+        log.info("Rebuild rollups");
+        Map<RollupGranularity, Integer> rows;
+        ingestionLimiter.acquire();
+        try {
+            rows = rollupService.rebuild();
+        } finally {
+            ingestionLimiter.release();
+        }
+        statsQueryCache.invalidateAll();
+        return ResponseEntity.ok(rows);
+    }
+
+    @GetMapping("/check")
+    public ResponseEntity<Map<RollupGranularity, Long>> check(
+            @RequestParam(name = "start") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+            @RequestParam(name = "end") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end) {
+        log.info("Check rollups from start {}, end {}", start, end);
+        return ResponseEntity.ok(rollupService.check(start, end));
+    }
+}
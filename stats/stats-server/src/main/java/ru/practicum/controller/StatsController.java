@@ -1,9 +1,15 @@
 package ru.practicum.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -11,32 +17,234 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.TimeSeriesDto;
 import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.exception.InvalidParameterException;
+import ru.practicum.ingestion.AsyncHitWriter;
+import ru.practicum.ingestion.HitJournal;
+import ru.practicum.ingestion.IngestionLimiter;
+import ru.practicum.ingestion.IngestionProperties;
+import ru.practicum.ingestion.SaturationPolicy;
+import ru.practicum.mapper.EndpointHitMapper;
+import ru.practicum.metrics.StatsMetrics;
+import ru.practicum.model.RollupGranularity;
 import ru.practicum.service.StatsService;
+import ru.practicum.sketch.HyperLogLog;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 public class StatsController {
+    private static final String QUEUE_DEPTH_HEADER = "X-Queue-Depth";
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String ERROR_BOUND_HEADER = "X-Relative-Standard-Error";
+
     private final StatsService statsService;
+    private final AsyncHitWriter asyncHitWriter;
+    private final HitJournal hitJournal;
+    private final IngestionLimiter ingestionLimiter;
+    private final EndpointHitMapper endpointHitMapper;
+    private final IngestionProperties ingestionProperties;
+    private final ObjectMapper objectMapper;
+    private final StatsMetrics statsMetrics;
+
+    @Value("${stats-server.streaming.enabled:true}")
+    private boolean streamingEnabled;
 
     @PostMapping("/hit")
     public ResponseEntity<EndpointHitDto> addStatistic(@RequestBody EndpointHitDto endpointHitDto) {
-        log.info("Add endpointHitDto {}", endpointHitDto);
+        log.debug("Add endpointHitDto {}", endpointHitDto);
+        if (hitJournal.isEnabled()) {
+            hitJournal.append(endpointHitMapper.toEndpointHit(endpointHitDto));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(endpointHitDto);
+        }
+        if (asyncHitWriter.isEnabled()) {
+            // A full queue is the saturation of this mode, writing through would take a connection after all
+            if (!asyncHitWriter.offer(endpointHitMapper.toEndpointHit(endpointHitDto))) {
+                ingestionLimiter.onSaturated();
+                return refused();
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(QUEUE_DEPTH_HEADER, String.valueOf(asyncHitWriter.getQueueDepth()))
+                    .body(endpointHitDto);
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body(statsService.addStatistic(endpointHitDto));
     }
 
+    // Same answers as IngestionAdmissionInterceptor gives
+    private ResponseEntity<EndpointHitDto> refused() {
+        if (ingestionProperties.getSaturationPolicy() == SaturationPolicy.SHED) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+        }
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ingestionProperties.getRetryAfterSeconds()))
+                .build();
+    }
+
+    @PostMapping(value = "/hits", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> addStatistics(@RequestBody List<EndpointHitDto> endpointHitDtos) {
+        log.info("Add {} endpointHitDtos", endpointHitDtos.size());
+        statsService.addStatistics(endpointHitDtos);
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    // NDJSON is read record by record and written in batch-size chunks, so a log replay never sits in memory
+    @PostMapping(value = "/hits", consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Void> addStatisticsStream(HttpServletRequest request) throws IOException {
+        int batchSize = ingestionProperties.getBatchSize();
+        int total = 0;
+        List<EndpointHitDto> chunk = new ArrayList<>(batchSize);
+        try (MappingIterator<EndpointHitDto> iterator = objectMapper.readerFor(EndpointHitDto.class)
+                .readValues(request.getInputStream())) {
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == batchSize) {
+                    total += statsService.addStatistics(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            total += statsService.addStatistics(chunk);
+        }
+        log.info("Added {} endpointHitDtos from NDJSON stream", total);
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    @GetMapping("/hit/queue")
+    public ResponseEntity<Map<String, Object>> getQueueState() {
+        return ResponseEntity.ok(Map.of(
+                "mode", ingestionProperties.getMode(),
+                "depth", asyncHitWriter.getQueueDepth(),
+                "capacity", asyncHitWriter.getQueueCapacity(),
+                "journalSegments", hitJournal.getSegmentCount(),
+                "inFlight", ingestionLimiter.getInFlight(),
+                "waiting", ingestionLimiter.getWaiting(),
+                "rejected", ingestionLimiter.getRejected(),
+                "shed", ingestionLimiter.getShed()
+        ));
+    }
+
     @GetMapping("/stats")
     public ResponseEntity<List<ViewStatsDto>> getStatistic(
             @RequestParam(name = "start", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
             @RequestParam(name = "end", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
             @RequestParam(name = "uris", required = false) List<String> uris,
+            @RequestParam(name = "unique", defaultValue = "false") Boolean unique,
+            @RequestParam(name = "approximate", defaultValue = "false") Boolean approximate) {
+
+        log.info("Get statistic from start {}, end {}, uris {}, unique {}, approximate {}",
+                start, end, uris, unique, approximate);
+        long started = System.nanoTime();
+        List<ViewStatsDto> stats = statsService.getStatistic(start, end, uris, unique, approximate);
+        statsMetrics.recordQuery("stats", unique, uris != null && !uris.isEmpty(), approximate, stats.size(),
+                System.nanoTime() - started);
+        if (unique && approximate) {
+            return ResponseEntity.ok()
+                    .header(ERROR_BOUND_HEADER, String.valueOf(HyperLogLog.RELATIVE_STANDARD_ERROR))
+                    .body(stats);
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    // Without uris the result has one row per uri ever hit, so it is written out as it is read
+    @GetMapping(value = "/stats", params = "!uris")
+    public void getAllStatistic(
+            @RequestParam(name = "start", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+            @RequestParam(name = "end", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
+            @RequestParam(name = "unique", defaultValue = "false") Boolean unique,
+            @RequestParam(name = "approximate", defaultValue = "false") Boolean approximate,
+            HttpServletResponse response) throws IOException {
+
+        log.info("Get all statistic from start {}, end {}, unique {}, approximate {}", start, end, unique, approximate);
+        long started = System.nanoTime();
+        if (!streamingEnabled) {
+            List<ViewStatsDto> stats = statsService.getStatistic(start, end, null, unique, approximate);
+            statsMetrics.recordQuery("stats", unique, false, approximate, stats.size(), System.nanoTime() - started);
+            prepareResponse(response, unique, approximate);
+            objectMapper.writeValue(response.getOutputStream(), stats);
+            return;
+        }
+
+        JsonArrayWriter<ViewStatsDto> writer = new JsonArrayWriter<>(objectMapper, () -> {
+            prepareResponse(response, unique, approximate);
+            return response.getOutputStream();
+        });
+        int[] rows = new int[1];
+        try {
+            statsService.streamStatistic(start, end, unique, approximate, writer.andThen(viewStats -> rows[0]++));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        statsMetrics.recordQuery("stats.stream", unique, false, approximate, rows[0], System.nanoTime() - started);
+    }
+
+    // Counts from the heavy-hitters summary are upper bounds; exact=true, or a window longer than the tracked history,
+    // runs the exact aggregation instead
+    @GetMapping("/stats/top")
+    public ResponseEntity<List<ViewStatsDto>> getTop(
+            @RequestParam(name = "k", defaultValue = "10") Integer k,
+            @RequestParam(name = "window", defaultValue = "1h") String window,
+            @RequestParam(name = "exact", defaultValue = "false") Boolean exact) {
+
+        log.info("Get top {} for window {}, exact {}", k, window, exact);
+        if (k <= 0) {
+            throw new InvalidParameterException("k must be positive: " + k);
+        }
+        return ResponseEntity.ok(statsService.getTop(k, parseWindow(window), exact));
+    }
+
+    @GetMapping("/stats/timeseries")
+    public ResponseEntity<TimeSeriesDto> getTimeSeries(
+            @RequestParam(name = "start", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+            @RequestParam(name = "end", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
+            @RequestParam(name = "uris") List<String> uris,
+            @RequestParam(name = "granularity", defaultValue = "hour") String granularity,
             @RequestParam(name = "unique", defaultValue = "false") Boolean unique) {
 
-        log.info("Get statistic from start {}, end {}, uris {}, unique {}", start, end, uris, unique);
-        return ResponseEntity.ok(statsService.getStatistic(start, end, uris, unique));
+        log.info("Get time series from start {}, end {}, uris {}, granularity {}, unique {}",
+                start, end, uris, granularity, unique);
+        return ResponseEntity.ok(statsService.getTimeSeries(start, end, uris, parseGranularity(granularity), unique));
+    }
+
+    private RollupGranularity parseGranularity(String granularity) {
+        for (RollupGranularity value : RollupGranularity.values()) {
+            if (value.name().equalsIgnoreCase(granularity)) {
+                return value;
+            }
+        }
+        throw new InvalidParameterException("Unknown granularity: " + granularity);
+    }
+
+    private Duration parseWindow(String window) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Invalid window: " + window);
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new InvalidParameterException("Window must be positive: " + window);
+        }
+        return duration;
+    }
+
+    private void prepareResponse(HttpServletResponse response, Boolean unique, Boolean approximate) {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (unique && approximate) {
+            response.setHeader(ERROR_BOUND_HEADER, String.valueOf(HyperLogLog.RELATIVE_STANDARD_ERROR));
+        }
     }
 }
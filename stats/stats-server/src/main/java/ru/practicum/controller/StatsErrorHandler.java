@@ -0,0 +1,44 @@
+package ru.practicum.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.exception.InvalidIpAddressException;
+import ru.practicum.exception.InvalidParameterException;
+import ru.practicum.exception.StartEndDateTimeException;
+
+// Kept apart from ru.practicum.exception.ErrorHandler of main-service, which can run with the stats-server jar
+@Slf4j
+@RestControllerAdvice
+public class StatsErrorHandler {
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleMissingIdException(StartEndDateTimeException exception) {
+        log.debug("ERROR 404 Not found: {}", exception.getMessage(), exception);
+        return new ErrorResponse(exception.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidIpAddressException(InvalidIpAddressException exception) {
+        log.debug("ERROR 400 Bad request: {}", exception.getMessage(), exception);
+        return new ErrorResponse(exception.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidParameterException(InvalidParameterException exception) {
+        log.debug("ERROR 400 Bad request: {}", exception.getMessage(), exception);
+        return new ErrorResponse(exception.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public ErrorResponse handleMissingIdException(Throwable exception) {
+        log.debug("UNKNOWN ERROR 500: {}", exception.getMessage(), exception);
+        return new ErrorResponse(exception.getMessage());
+    }
+}
\ No newline at end of file
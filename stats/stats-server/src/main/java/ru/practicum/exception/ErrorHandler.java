@@ -1,26 +0,0 @@
-package ru.practicum.exception;
-
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
-import org.springframework.web.bind.annotation.RestControllerAdvice;
-
-@Slf4j
-@RestControllerAdvice
-public class ErrorHandler {
-
-    @ExceptionHandler
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse handleMissingIdException(StartEndDateTimeException exception) {
-        log.debug("ERROR 404 Not found: {}", exception.getMessage(), exception);
-        return new ErrorResponse(exception.getMessage());
-    }
-
-    @ExceptionHandler
-    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    public ErrorResponse handleMissingIdException(Throwable exception) {
-        log.debug("UNKNOWN ERROR 500: {}", exception.getMessage(), exception);
-        return new ErrorResponse(exception.getMessage());
-    }
-}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package ru.practicum.exception;
+
+public class InvalidIpAddressException extends RuntimeException {
+
+    public InvalidIpAddressException(final String message) {
+        super(message);
+    }
+}
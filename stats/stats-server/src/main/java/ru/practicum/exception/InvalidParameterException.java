@@ -0,0 +1,8 @@
+package ru.practicum.exception;
+
+public class InvalidParameterException extends RuntimeException {
+
+    public InvalidParameterException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.ingestion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.service.EndpointHitWriter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class AsyncHitWriter {
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final EndpointHitWriter endpointHitWriter;
+    private final IngestionLimiter ingestionLimiter;
+    private final IngestionProperties properties;
+    private final BlockingQueue<EndpointHit> queue;
+    private volatile boolean running;
+    private Thread worker;
+
+    public AsyncHitWriter(EndpointHitWriter endpointHitWriter, IngestionLimiter ingestionLimiter,
+                          IngestionProperties properties) {
+        this.endpointHitWriter = endpointHitWriter;
+        this.ingestionLimiter = ingestionLimiter;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::drainLoop, "hit-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Started async hit writer: capacity={}, batchSize={}, flushIntervalMs={}",
+                properties.getQueueCapacity(), properties.getBatchSize(), properties.getFlushIntervalMs());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        worker.join(SHUTDOWN_TIMEOUT_MS);
+        log.info("Stopped async hit writer, {} hits left in queue", queue.size());
+    }
+
+    public boolean isEnabled() {
+        return properties.getMode() == IngestionMode.ASYNC;
+    }
+
+    public boolean offer(EndpointHit endpointHit) {
+        return running && queue.offer(endpointHit);
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return properties.getQueueCapacity();
+    }
+
+    private void drainLoop() {
+        List<EndpointHit> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                queue.drainTo(batch, properties.getBatchSize() - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Waits for the first hit, then keeps collecting until the batch is full or the flush interval has passed
+    private void fillBatch(List<EndpointHit> batch) throws InterruptedException {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+        EndpointHit first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < properties.getBatchSize()) {
+            queue.drainTo(batch, properties.getBatchSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= properties.getBatchSize() || remaining <= 0) {
+                break;
+            }
+            EndpointHit next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<EndpointHit> batch) {
+        try {
+            ingestionLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while waiting to flush {} hits", batch.size());
+            return;
+        }
+        try {
+            endpointHitWriter.write(batch);
+            log.debug("Flushed {} hits", batch.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} hits", batch.size(), e);
+        } finally {
+            ingestionLimiter.release();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package ru.practicum.ingestion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.repository.JournalCheckpointRepository;
+import ru.practicum.service.EndpointHitWriter;
+import ru.practicum.util.IpAddresses;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Write-ahead journal for hits: /hit is acknowledged once the record is in a memory-mapped segment, a loader thread
+ * replays segments into the database in batches and deletes them when everything is committed. The replay position
+ * is saved in the same transaction as the hits, so a crash at any point neither loses nor duplicates hits.
+ */
+@Slf4j
+@Component
+public class HitJournal {
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+    private static final int MICROS_PER_SECOND = 1_000_000;
+
+    private final EndpointHitWriter endpointHitWriter;
+    private final IngestionLimiter ingestionLimiter;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IngestionProperties properties;
+    // Oldest first, the last one is appended to
+    private final Deque<JournalSegment> segments = new ConcurrentLinkedDeque<>();
+    private volatile JournalSegment active;
+    private volatile boolean running;
+    private Thread loader;
+
+    public HitJournal(EndpointHitWriter endpointHitWriter, IngestionLimiter ingestionLimiter,
+                      JournalCheckpointRepository checkpointRepository, TransactionTemplate transactionTemplate,
+                      IngestionProperties properties) {
+        this.endpointHitWriter = endpointHitWriter;
+        this.ingestionLimiter = ingestionLimiter;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        Path directory = Paths.get(properties.getJournalDirectory());
+        Files.createDirectories(directory);
+        List<Path> existing;
+        try (Stream<Path> files = Files.list(directory)) {
+            existing = files.filter(JournalSegment::isSegment)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path path : existing) {
+            segments.add(JournalSegment.recover(path));
+        }
+        deleteStaleCheckpoints();
+        long sequence = segments.isEmpty() ? 0 : segments.getLast().getSequence() + 1;
+        active = JournalSegment.create(directory, sequence, properties.getJournalSegmentBytes());
+        segments.add(active);
+
+        running = true;
+        loader = new Thread(this::replayLoop, "hit-journal-loader");
+        loader.setDaemon(true);
+        loader.start();
+        log.info("Started hit journal in {}: {} segments to recover, segmentBytes={}", directory.toAbsolutePath(),
+                existing.size(), properties.getJournalSegmentBytes());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (loader == null) {
+            return;
+        }
+        synchronized (this) {
+            running = false;
+            active.seal();
+        }
+        loader.join(SHUTDOWN_TIMEOUT_MS);
+        for (JournalSegment segment : segments) {
+            if (segment.isReplayed()) {
+                deleteSegment(segment);
+            } else {
+                segment.close();
+            }
+        }
+        log.info("Stopped hit journal, {} segments left for the next start", segments.size());
+    }
+
+    public boolean isEnabled() {
+        return properties.getMode() == IngestionMode.JOURNAL;
+    }
+
+    public synchronized void append(EndpointHit endpointHit) {
+        if (!running) {
+            throw new IllegalStateException("Hit journal is not running");
+        }
+        byte[] body = encode(endpointHit);
+        if (JournalSegment.RECORD_HEADER_BYTES + body.length > properties.getJournalSegmentBytes()) {
+            throw new IllegalArgumentException("Hit does not fit into a journal segment");
+        }
+        try {
+            if (!active.append(body, properties.isJournalForce())) {
+                active.seal();
+                active = JournalSegment.create(Paths.get(properties.getJournalDirectory()), active.getSequence() + 1,
+                        properties.getJournalSegmentBytes());
+                segments.add(active);
+                active.append(body, properties.isJournalForce());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    private void replayLoop() {
+        while (running || !allReplayed()) {
+            try {
+                if (!replayNext()) {
+                    Thread.sleep(properties.getFlushIntervalMs());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                log.error("Failed to replay hit journal, retrying", e);
+                try {
+                    Thread.sleep(properties.getFlushIntervalMs());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Replays one batch of the oldest segment; false when there is nothing to replay yet
+    private boolean replayNext() throws IOException, InterruptedException {
+        JournalSegment segment = segments.peekFirst();
+        if (segment == null) {
+            return false;
+        }
+        if (segment.getReplayPosition() < 0) {
+            segment.setReplayPosition(checkpointRepository.getPosition(segment.getSequence()));
+        }
+        if (segment.isReplayed()) {
+            if (segment == active) {
+                return false;
+            }
+            deleteSegment(segment);
+            segments.pollFirst();
+            return true;
+        }
+
+        List<byte[]> bodies = new ArrayList<>(properties.getBatchSize());
+        int position = segment.read(segment.getReplayPosition(), properties.getBatchSize(), bodies);
+        if (bodies.isEmpty()) {
+            return false;
+        }
+        List<EndpointHit> hits = bodies.stream()
+                .map(this::decode)
+                .collect(Collectors.toList());
+        ingestionLimiter.acquire();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                endpointHitWriter.write(hits);
+                checkpointRepository.savePosition(segment.getSequence(), position);
+            });
+        } finally {
+            ingestionLimiter.release();
+        }
+        segment.setReplayPosition(position);
+        log.debug("Replayed {} hits from journal segment {}", hits.size(), segment.getSequence());
+        return true;
+    }
+
+    private boolean allReplayed() {
+        return segments.stream().allMatch(JournalSegment::isReplayed);
+    }
+
+    // A segment file is deleted before its checkpoint, so a crash in between leaves a row whose sequence may be reused
+    private void deleteStaleCheckpoints() {
+        Set<Long> sequences = segments.stream()
+                .map(JournalSegment::getSequence)
+                .collect(Collectors.toSet());
+        for (Long segment : checkpointRepository.findSegments()) {
+            if (!sequences.contains(segment)) {
+                checkpointRepository.delete(segment);
+                log.info("Deleted the checkpoint of missing journal segment {}", segment);
+            }
+        }
+    }
+
+    private void deleteSegment(JournalSegment segment) throws IOException {
+        segment.delete();
+        checkpointRepository.delete(segment.getSequence());
+        log.debug("Deleted replayed journal segment {}", segment.getSequence());
+    }
+
+    // [long created micros][byte has ip][16 bytes ip][short app length][app][short uri length][uri], -1 for null
+    private byte[] encode(EndpointHit hit) {
+        byte[] app = toBytes(hit.getApp());
+        byte[] uri = toBytes(hit.getUri());
+        byte[] ip = IpAddresses.toBytes(hit.getIp());
+        ByteBuffer body = ByteBuffer.allocate(8 + 1 + IpAddresses.LENGTH + 2 + length(app) + 2 + length(uri));
+        LocalDateTime timestamp = hit.getTimestamp();
+        body.putLong(timestamp.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + timestamp.getNano() / 1000);
+        body.put((byte) (ip == null ? 0 : 1));
+        body.put(ip == null ? new byte[IpAddresses.LENGTH] : ip);
+        putString(body, app);
+        putString(body, uri);
+        return body.array();
+    }
+
+    private EndpointHit decode(byte[] bytes) {
+        ByteBuffer body = ByteBuffer.wrap(bytes);
+        long micros = body.getLong();
+        boolean hasIp = body.get() == 1;
+        byte[] ip = new byte[IpAddresses.LENGTH];
+        body.get(ip);
+        String app = getString(body);
+        String uri = getString(body);
+        return EndpointHit.builder()
+                .app(app)
+                .uri(uri)
+                .ip(hasIp ? IpAddresses.fromBytes(ip) : null)
+                .timestamp(LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                        (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1000, ZoneOffset.UTC))
+                .build();
+    }
+
+    private static byte[] toBytes(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Value is too long for the hit journal");
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer body, byte[] value) {
+        body.putShort((short) (value == null ? -1 : value.length));
+        if (value != null) {
+            body.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer body) {
+        short length = body.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        body.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.ingestion;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Component
+@RequiredArgsConstructor
+public class IngestionAdmissionInterceptor implements HandlerInterceptor {
+    private static final String ADMITTED_ATTRIBUTE = IngestionAdmissionInterceptor.class.getName() + ".admitted";
+
+    private final IngestionLimiter ingestionLimiter;
+    private final IngestionProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (ingestionLimiter.tryAcquire()) {
+            request.setAttribute(ADMITTED_ATTRIBUTE, Boolean.TRUE);
+            return true;
+        }
+        ingestionLimiter.onSaturated();
+        if (properties.getSaturationPolicy() == SaturationPolicy.SHED) {
+            response.setStatus(HttpStatus.ACCEPTED.value());
+        } else {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+        }
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(ADMITTED_ATTRIBUTE) != null) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            ingestionLimiter.release();
+        }
+    }
+}
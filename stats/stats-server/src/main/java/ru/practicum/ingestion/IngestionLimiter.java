@@ -0,0 +1,97 @@
+package ru.practicum.ingestion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Admission control for every write that holds a connection: at most maxConcurrentWrites run, at most
+ * maxQueuedWrites wait for a slot. Slots are handed out in arrival order, so a background writer waiting in
+ * acquire() is not overtaken by /hit requests arriving after it.
+ */
+@Slf4j
+@Component
+public class IngestionLimiter {
+    private static final long LOG_EVERY = 1000;
+
+    private final IngestionProperties properties;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    public IngestionLimiter(IngestionProperties properties) {
+        this.properties = properties;
+        this.admitted = new Semaphore(properties.getMaxConcurrentWrites() + properties.getMaxQueuedWrites(), true);
+        this.running = new Semaphore(properties.getMaxConcurrentWrites(), true);
+    }
+
+    // False when the queue is full or no slot frees up within the queue timeout
+    public boolean tryAcquire() throws InterruptedException {
+        if (!admitted.tryAcquire()) {
+            return false;
+        }
+        boolean acquired = false;
+        try {
+            acquired = running.tryAcquire(properties.getQueueTimeoutMs(), TimeUnit.MILLISECONDS);
+        } finally {
+            if (!acquired) {
+                admitted.release();
+            }
+        }
+        return acquired;
+    }
+
+    // For writers other than /hit and /hits: they wait for a slot instead of being refused, then call release()
+    public void acquire() throws InterruptedException {
+        admitted.acquire();
+        try {
+            running.acquire();
+        } catch (InterruptedException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+
+    public void release() {
+        running.release();
+        admitted.release();
+    }
+
+    public void onSaturated() {
+        long saturated;
+        if (properties.getSaturationPolicy() == SaturationPolicy.SHED) {
+            shed.increment();
+            saturated = shed.sum();
+        } else {
+            rejected.increment();
+            saturated = rejected.sum();
+        }
+        // One line per LOG_EVERY refusals, so a storm does not turn into a logging storm
+        if (saturated % LOG_EVERY == 1) {
+            log.warn("Ingestion saturated, policy {}: {} requests refused so far", properties.getSaturationPolicy(),
+                    saturated);
+        }
+    }
+
+    public int getInFlight() {
+        return properties.getMaxConcurrentWrites() - running.availablePermits();
+    }
+
+    public int getWaiting() {
+        int admittedCount = properties.getMaxConcurrentWrites() + properties.getMaxQueuedWrites()
+                - admitted.availablePermits();
+        return Math.max(0, admittedCount - getInFlight());
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getShed() {
+        return shed.sum();
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.ingestion;
+
+public enum IngestionMode {
+    SYNC,
+    ASYNC,
+    JOURNAL
+}
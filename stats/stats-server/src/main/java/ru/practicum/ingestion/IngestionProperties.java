@@ -0,0 +1,30 @@
+package ru.practicum.ingestion;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "stats-server.ingestion")
+public class IngestionProperties {
+    private IngestionMode mode = IngestionMode.SYNC;
+    private int queueCapacity = 10_000;
+    private int batchSize = 500;
+    private long flushIntervalMs = 200;
+    // Batches of at least this many hits are written with COPY instead of a batched insert
+    private int copyThreshold = 100;
+    private int backfillBatchSize = 10_000;
+    private String journalDirectory = "journal";
+    private int journalSegmentBytes = 64 * 1024 * 1024;
+    // Survives a process crash without it; forcing every append to disk also survives losing the machine
+    private boolean journalForce = false;
+    // Kept below spring.datasource.hikari.maximum-pool-size; reads have a pool of their own (stats-server.read-pool)
+    private int maxConcurrentWrites = 6;
+    private int maxQueuedWrites = 50;
+    private long queueTimeoutMs = 500;
+    private SaturationPolicy saturationPolicy = SaturationPolicy.REJECT;
+    private int retryAfterSeconds = 1;
+}
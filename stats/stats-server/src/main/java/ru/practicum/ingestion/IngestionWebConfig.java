@@ -0,0 +1,23 @@
+package ru.practicum.ingestion;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class IngestionWebConfig implements WebMvcConfigurer {
+    private final IngestionAdmissionInterceptor ingestionAdmissionInterceptor;
+    private final IngestionProperties properties;
+
+    // In async and journal mode POST /hit only enqueues the hit: it is admitted against the queue, see StatsController
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (properties.getMode() == IngestionMode.SYNC) {
+            registry.addInterceptor(ingestionAdmissionInterceptor).addPathPatterns("/hit", "/hits");
+        } else {
+            registry.addInterceptor(ingestionAdmissionInterceptor).addPathPatterns("/hits");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ru.practicum.ingestion;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/*
+ * One pre-sized, memory-mapped journal file. Records are [int length][int crc32][body]; the length is written last,
+ * so a zero length marks the end of the data and a record cut short by a crash fails its checksum. Appends come
+ * from a single writer at a time, reads from the loader thread through its own view of the mapping.
+ */
+@Slf4j
+class JournalSegment {
+    static final int RECORD_HEADER_BYTES = 8;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+
+    @Getter
+    private final long sequence;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final ByteBuffer readView;
+    @Getter
+    private volatile int writePosition;
+    @Getter
+    private volatile boolean sealed;
+    // Loader-side state: -1 until read from the checkpoint table
+    @Getter
+    @Setter
+    private int replayPosition = -1;
+
+    private JournalSegment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.readView = buffer.duplicate();
+    }
+
+    static JournalSegment create(Path directory, long sequence, int size) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new JournalSegment(sequence, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    // Finds the end of the valid records of a segment left by a previous run; it is never appended to again
+    static JournalSegment recover(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        JournalSegment segment = new JournalSegment(parseSequence(path), path, channel,
+                channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        int position = 0;
+        while (true) {
+            int next = segment.nextRecord(position);
+            if (next < 0) {
+                break;
+            }
+            position = next;
+        }
+        segment.writePosition = position;
+        segment.sealed = true;
+        log.info("Recovered journal segment {}: {} bytes of records", path.getFileName(), position);
+        return segment;
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    static long parseSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // False when the record does not fit, the caller then seals this segment and rolls over to a new one
+    boolean append(byte[] body, boolean force) {
+        int position = writePosition;
+        if (position + RECORD_HEADER_BYTES + body.length > buffer.capacity()) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        buffer.position(position + RECORD_HEADER_BYTES);
+        buffer.put(body);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, body.length);
+        if (force) {
+            buffer.force();
+        }
+        writePosition = position + RECORD_HEADER_BYTES + body.length;
+        return true;
+    }
+
+    // Reads up to max record bodies starting at from and returns the position after the last one
+    int read(int from, int max, List<byte[]> bodies) {
+        int limit = writePosition;
+        int position = from;
+        while (position < limit && bodies.size() < max) {
+            int length = readView.getInt(position);
+            byte[] body = new byte[length];
+            readView.position(position + RECORD_HEADER_BYTES);
+            readView.get(body);
+            bodies.add(body);
+            position += RECORD_HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    void seal() {
+        buffer.force();
+        sealed = true;
+    }
+
+    boolean isReplayed() {
+        return sealed && replayPosition == writePosition;
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    private int nextRecord(int position) {
+        if (position + RECORD_HEADER_BYTES > readView.capacity()) {
+            return -1;
+        }
+        int length = readView.getInt(position);
+        if (length <= 0 || position + RECORD_HEADER_BYTES + length > readView.capacity()) {
+            return -1;
+        }
+        byte[] body = new byte[length];
+        readView.position(position + RECORD_HEADER_BYTES);
+        readView.get(body);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != readView.getInt(position + 4)) {
+            log.warn("Journal segment {}: torn record at {}, dropping the tail", path.getFileName(), position);
+            return -1;
+        }
+        return position + RECORD_HEADER_BYTES + length;
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.ingestion;
+
+public enum SaturationPolicy {
+    // 429 Too Many Requests with Retry-After, the client decides whether to retry
+    REJECT,
+    // 202 Accepted, the hit is dropped and counted
+    SHED
+}
@@ -2,19 +2,38 @@ package ru.practicum.mapper;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 import ru.practicum.dto.EndpointHitDto;
 import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.exception.InvalidIpAddressException;
 import ru.practicum.model.EndpointHit;
 import ru.practicum.model.ViewStats;
+import ru.practicum.util.IpAddresses;
 
 @Mapper(componentModel = "spring")
 public interface EndpointHitMapper {
 
     @Mapping(target = "timestamp", dateFormat = "yyyy-MM-dd HH:mm:ss")
+    @Mapping(target = "ip", qualifiedByName = "normalizeIp")
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "appId", ignore = true)
+    @Mapping(target = "uriId", ignore = true)
     EndpointHit toEndpointHit(EndpointHitDto endpointHitDto);
 
     @Mapping(target = "timestamp", dateFormat = "yyyy-MM-dd HH:mm:ss")
     EndpointHitDto toEndpointHitDto(EndpointHit endpointHit);
 
-    ViewStatsDto toViewStatsDto(ViewStats viewStats);
+    @Mapping(target = "app", source = "app")
+    @Mapping(target = "uri", source = "uri")
+    @Mapping(target = "hits", source = "viewStats.hits")
+    ViewStatsDto toViewStatsDto(ViewStats viewStats, String app, String uri);
+
+    @Named("normalizeIp")
+    default String normalizeIp(String ip) {
+        try {
+            return IpAddresses.normalize(ip);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidIpAddressException(e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package ru.practicum.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Rows read from the stats tables as counted by Postgres (pg_stat_user_tables), partitions folded into their
+ * table. One query serves all counters of a scrape; the pool itself is covered by the HikariCP binder.
+ */
+@Slf4j
+@Component
+public class DatabaseMetrics implements MeterBinder {
+    private static final long REFRESH_MS = 5_000;
+    private static final String[] TABLES = {"endpoint_hit", "endpoint_hit_rollup", "endpoint_hit_sketch"};
+    private static final String ROWS_READ = "select case " +
+            "when relname like 'endpoint_hit_rollup%' then 'endpoint_hit_rollup' " +
+            "when relname like 'endpoint_hit_sketch%' then 'endpoint_hit_sketch' " +
+            "else 'endpoint_hit' end as table_name, " +
+            "sum(coalesce(seq_tup_read, 0)) as seq_rows, sum(coalesce(idx_tup_fetch, 0)) as idx_rows " +
+            "from pg_stat_user_tables where relname like 'endpoint_hit%' group by 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Map<String, long[]> snapshot = Map.of();
+    private volatile long refreshedAt;
+
+    public DatabaseMetrics(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String table : TABLES) {
+            register(registry, table, "seq", 0);
+            register(registry, table, "index", 1);
+        }
+    }
+
+    private void register(MeterRegistry registry, String table, String access, int index) {
+        FunctionCounter.builder("stats.db.rows.read", this, metrics -> metrics.read(table, index))
+                .description("Rows read by sequential or index scans")
+                .tag("table", table)
+                .tag("access", access)
+                .register(registry);
+    }
+
+    private double read(String table, int index) {
+        if (System.currentTimeMillis() - refreshedAt > REFRESH_MS) {
+            refresh();
+        }
+        long[] rows = snapshot.get(table);
+        return rows == null ? 0 : rows[index];
+    }
+
+    private synchronized void refresh() {
+        if (System.currentTimeMillis() - refreshedAt <= REFRESH_MS) {
+            return;
+        }
+        try {
+            Map<String, long[]> rows = new HashMap<>();
+            jdbcTemplate.query(ROWS_READ, rs -> {
+                rows.put(rs.getString("table_name"), new long[]{rs.getLong("seq_rows"), rs.getLong("idx_rows")});
+            });
+            snapshot = rows;
+        } catch (DataAccessException e) {
+            log.debug("Failed to read table statistics", e);
+        }
+        refreshedAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.practicum.ingestion.AsyncHitWriter;
+import ru.practicum.ingestion.HitJournal;
+import ru.practicum.ingestion.IngestionLimiter;
+
+/*
+ * The same state as GET /hit/queue, exposed as meters. Registered once the registry exists rather than as a
+ * MeterBinder: the writers behind these beans need the registry themselves.
+ */
+@Component
+public class IngestionMetrics {
+
+    public IngestionMetrics(MeterRegistry registry, AsyncHitWriter asyncHitWriter, HitJournal hitJournal,
+                            IngestionLimiter ingestionLimiter) {
+        Gauge.builder("stats.ingestion.queue.depth", asyncHitWriter, AsyncHitWriter::getQueueDepth)
+                .description("Hits waiting in the async ingestion queue")
+                .register(registry);
+        Gauge.builder("stats.ingestion.journal.segments", hitJournal, HitJournal::getSegmentCount)
+                .description("Journal segments not yet loaded into the database")
+                .register(registry);
+        Gauge.builder("stats.ingestion.in.flight", ingestionLimiter, IngestionLimiter::getInFlight)
+                .description("Ingestion requests holding a write permit")
+                .register(registry);
+        Gauge.builder("stats.ingestion.waiting", ingestionLimiter, IngestionLimiter::getWaiting)
+                .description("Ingestion requests waiting for a write permit")
+                .register(registry);
+        FunctionCounter.builder("stats.ingestion.refused", ingestionLimiter, IngestionLimiter::getRejected)
+                .description("Ingestion requests refused at saturation")
+                .tag("policy", "reject")
+                .register(registry);
+        FunctionCounter.builder("stats.ingestion.refused", ingestionLimiter, IngestionLimiter::getShed)
+                .description("Ingestion requests refused at saturation")
+                .tag("policy", "shed")
+                .register(registry);
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Application meters; hits are logged as one aggregated line per interval instead of one line per hit
+@Slf4j
+@Component
+public class StatsMetrics {
+    private final MeterRegistry registry;
+    private final Counter hitsWritten;
+    private final AtomicLong loggedHits = new AtomicLong();
+
+    public StatsMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.hitsWritten = Counter.builder("stats.hits.written")
+                .description("Hits written to ENDPOINT_HIT")
+                .register(registry);
+    }
+
+    public void recordWrite(String method, int hits, long nanos) {
+        hitsWritten.increment(hits);
+        Timer.builder("stats.hits.insert")
+                .description("Time to insert one batch of hits")
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("stats.hits.batch.size")
+                .tag("method", method)
+                .register(registry)
+                .record(hits);
+    }
+
+    public void recordQuery(String endpoint, boolean unique, boolean withUris, boolean approximate, int rows,
+                            long nanos) {
+        Timer.builder("stats.query")
+                .description("Statistics query latency")
+                .tag("endpoint", endpoint)
+                .tag("unique", String.valueOf(unique))
+                .tag("uris", String.valueOf(withUris))
+                .tag("approximate", String.valueOf(approximate))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("stats.query.rows")
+                .description("Rows returned by a statistics query")
+                .tag("endpoint", endpoint)
+                .tag("unique", String.valueOf(unique))
+                .tag("uris", String.valueOf(withUris))
+                .register(registry)
+                .record(rows);
+    }
+
+    @Scheduled(fixedDelayString = "${stats-server.metrics.log-interval-ms:60000}")
+    public void logIngestion() {
+        long total = (long) hitsWritten.count();
+        long written = total - loggedHits.getAndSet(total);
+        if (written > 0) {
+            log.info("Wrote {} hits since the last report, {} in total", written, total);
+        }
+    }
+}
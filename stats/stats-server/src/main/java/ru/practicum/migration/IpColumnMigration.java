@@ -0,0 +1,64 @@
+package ru.practicum.migration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.repository.IpMigrationRepository;
+import ru.practicum.util.IpAddresses;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Converts a VARCHAR ip column left by an earlier version to the 16-byte form; a no-op on databases created from
+ * stats-schema.sql. Runs while the context starts, before /hit is served, so hits are only written once the column
+ * has its final type.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IpColumnMigration {
+    private final IpMigrationRepository migrationRepository;
+
+    @Value("${stats-server.migration.ip.chunk-size:10000}")
+    private int chunkSize;
+
+    @PostConstruct
+    public void migrate() {
+        if (!migrationRepository.isTextColumn()) {
+            return;
+        }
+        log.info("Migrating ENDPOINT_HIT.ip to BYTEA in chunks of {}", chunkSize);
+        migrationRepository.addBinaryColumn();
+
+        long lastId = 0;
+        long migrated = 0;
+        List<Object[]> chunk = new ArrayList<>(chunkSize);
+        do {
+            chunk.clear();
+            migrationRepository.findChunk(lastId, chunkSize, rs -> {
+                chunk.add(new Object[]{toBytes(rs.getString("ip")), rs.getLong("id"), rs.getTimestamp("created")});
+            });
+            if (!chunk.isEmpty()) {
+                migrationRepository.updateChunk(chunk);
+                lastId = (Long) chunk.get(chunk.size() - 1)[1];
+                migrated += chunk.size();
+                log.info("Migrated {} ips", migrated);
+            }
+        } while (chunk.size() == chunkSize);
+
+        migrationRepository.swapColumns();
+        log.info("Finished migrating ENDPOINT_HIT.ip, {} rows converted", migrated);
+    }
+
+    private byte[] toBytes(String ip) {
+        try {
+            return IpAddresses.toBytes(ip.trim());
+        } catch (IllegalArgumentException e) {
+            log.warn("Dropping invalid ip '{}' during migration", ip);
+            return null;
+        }
+    }
+}
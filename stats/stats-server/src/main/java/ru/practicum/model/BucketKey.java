@@ -0,0 +1,26 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class BucketKey {
+    // Same order as the primary keys of the rollup tables, used to lock rows without deadlocks
+    public static final Comparator<BucketKey> LOCK_ORDER = Comparator.comparing(BucketKey::getGranularity)
+            .thenComparing(BucketKey::getBucketStart)
+            .thenComparing(BucketKey::getUriId)
+            .thenComparing(BucketKey::getAppId);
+
+    private final RollupGranularity granularity;
+    private final Integer appId;
+    private final Integer uriId;
+    private final LocalDateTime bucketStart;
+}
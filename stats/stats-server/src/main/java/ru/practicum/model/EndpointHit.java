@@ -3,11 +3,13 @@ package ru.practicum.model;
 import lombok.*;
 
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import java.time.LocalDateTime;
 
 @Data
@@ -20,11 +22,18 @@ public class EndpointHit {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    @Column(name = "app")
+    @Transient
     private String app;
-    @Column(name = "uri")
+    @Transient
     private String uri;
+    // Resolved from app and uri through DictionaryService on write
+    @Column(name = "app_id")
+    private Integer appId;
+    @Column(name = "uri_id")
+    private Integer uriId;
+    // Stored as 16 bytes, see IpAddresses
     @Column(name = "ip")
+    @Convert(converter = IpAddressConverter.class)
     private String ip;
     @Column(name = "created")
     private LocalDateTime timestamp;
@@ -0,0 +1,20 @@
+package ru.practicum.model;
+
+import ru.practicum.util.IpAddresses;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+@Converter
+public class IpAddressConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String ip) {
+        return IpAddresses.toBytes(ip);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return IpAddresses.fromBytes(bytes);
+    }
+}
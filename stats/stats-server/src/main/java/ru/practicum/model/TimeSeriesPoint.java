@@ -0,0 +1,14 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class TimeSeriesPoint {
+    private final Integer uriId;
+    private final LocalDateTime bucketStart;
+    private final long hits;
+}
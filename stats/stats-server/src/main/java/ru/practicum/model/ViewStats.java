@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class ViewStats {
-    private String app;
-    private String uri;
+    private Integer appId;
+    private Integer uriId;
     private Long hits;
 }
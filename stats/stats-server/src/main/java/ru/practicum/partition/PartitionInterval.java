@@ -0,0 +1,37 @@
+package ru.practicum.partition;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+@Getter
+@RequiredArgsConstructor
+public enum PartitionInterval {
+    DAY(ChronoUnit.DAYS, DateTimeFormatter.ofPattern("yyyyMMdd")),
+    MONTH(ChronoUnit.MONTHS, DateTimeFormatter.ofPattern("yyyyMM"));
+
+    private final ChronoUnit unit;
+    private final DateTimeFormatter suffixFormatter;
+
+    public LocalDate floor(LocalDate date) {
+        return this == MONTH ? date.withDayOfMonth(1) : date;
+    }
+
+    public String suffix(LocalDate partitionStart) {
+        return partitionStart.format(suffixFormatter);
+    }
+
+    // Suffix length tells which interval a partition was created with, so a config change keeps old ones manageable
+    public static PartitionInterval ofSuffix(String suffix) {
+        return suffix.length() == 8 ? DAY : MONTH;
+    }
+
+    public LocalDate parseSuffix(String suffix) {
+        return this == MONTH
+                ? LocalDate.parse(suffix + "01", DAY.suffixFormatter)
+                : LocalDate.parse(suffix, suffixFormatter);
+    }
+}
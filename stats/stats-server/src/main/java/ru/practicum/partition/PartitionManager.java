@@ -0,0 +1,124 @@
+package ru.practicum.partition;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.archive.ArchiveStore;
+import ru.practicum.cache.StatsQueryCache;
+import ru.practicum.repository.PartitionRepository;
+import ru.practicum.repository.RollupRepository;
+import ru.practicum.repository.SketchRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static ru.practicum.repository.PartitionRepository.PARTITION_PREFIX;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PartitionManager {
+    private final PartitionRepository partitionRepository;
+    private final RollupRepository rollupRepository;
+    private final SketchRepository sketchRepository;
+    private final ArchiveStore archiveStore;
+    private final StatsQueryCache statsQueryCache;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitionProperties properties;
+
+    // While the context starts, so the partitions exist before /hit is served
+    @PostConstruct
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${stats-server.partitioning.cron:0 0 * * * *}")
+    public synchronized void maintain() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        PartitionInterval interval = properties.getInterval();
+        LocalDate current = interval.floor(LocalDate.now());
+        Set<String> existing = new HashSet<>(partitionRepository.findPartitionNames());
+
+        for (int i = 0; i <= properties.getPremake(); i++) {
+            LocalDate from = current.plus(i, interval.getUnit());
+            String name = PARTITION_PREFIX + interval.suffix(from);
+            if (!existing.contains(name)) {
+                createPartition(name, from, from.plus(1, interval.getUnit()));
+            }
+        }
+        if (properties.getRetention() > 0) {
+            applyRetention(existing, current.minus(properties.getRetention(), interval.getUnit()));
+        }
+    }
+
+    private void createPartition(String name, LocalDate from, LocalDate to) {
+        try {
+            int moved = partitionRepository.create(name, from, to);
+            log.info("Created partition {} for [{}, {}), {} rows moved from the default partition", name, from, to,
+                    moved);
+        } catch (DataAccessException e) {
+            log.error("Failed to create partition {} for [{}, {}), retrying with the next run", name, from, to, e);
+        }
+    }
+
+    private void applyRetention(Set<String> partitions, LocalDate cutoff) {
+        boolean removed = false;
+        for (String name : partitions) {
+            String suffix = name.substring(PARTITION_PREFIX.length());
+            PartitionInterval interval = PartitionInterval.ofSuffix(suffix);
+            LocalDate start;
+            try {
+                start = interval.parseSuffix(suffix);
+            } catch (DateTimeParseException e) {
+                log.warn("Skipping partition {} with unexpected name", name);
+                continue;
+            }
+            LocalDate end = start.plus(1, interval.getUnit());
+            if (end.isAfter(cutoff)) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> remove(name, start, end));
+            removed = true;
+        }
+        if (removed) {
+            statsQueryCache.invalidateAll();
+        }
+    }
+
+    /*
+     * Rollup and sketch buckets of the range go in the same transaction, so every kind of query stops counting the
+     * hits at once. Hits before the archive watermark were already moved to the archive, which still serves them:
+     * their buckets stay.
+     */
+    private void remove(String name, LocalDate start, LocalDate end) {
+        if (properties.getRetentionAction() == PartitionProperties.RetentionAction.DROP) {
+            partitionRepository.drop(name);
+        } else {
+            partitionRepository.detach(name);
+        }
+        LocalDateTime from = start.atStartOfDay();
+        LocalDateTime to = end.atStartOfDay();
+        LocalDateTime watermark = archiveStore.getWatermark();
+        if (watermark != null && watermark.isAfter(from)) {
+            from = watermark;
+        }
+        int rollups = 0;
+        int sketches = 0;
+        if (from.isBefore(to)) {
+            rollups = rollupRepository.deleteBuckets(from, to);
+            sketches = sketchRepository.deleteBuckets(from, to);
+        }
+        log.info("{} partition {} for [{}, {}), deleted {} rollup and {} sketch buckets",
+                properties.getRetentionAction() == PartitionProperties.RetentionAction.DROP ? "Dropped" : "Detached",
+                name, start, end, rollups, sketches);
+    }
+}
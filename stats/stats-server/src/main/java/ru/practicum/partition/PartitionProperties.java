@@ -0,0 +1,25 @@
+package ru.practicum.partition;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "stats-server.partitioning")
+public class PartitionProperties {
+    private boolean enabled = true;
+    private PartitionInterval interval = PartitionInterval.MONTH;
+    // Partitions created ahead of the current one
+    private int premake = 2;
+    // Partitions kept behind the current one, 0 keeps everything
+    private int retention = 0;
+    private RetentionAction retentionAction = RetentionAction.DETACH;
+
+    public enum RetentionAction {
+        DROP,
+        DETACH
+    }
+}
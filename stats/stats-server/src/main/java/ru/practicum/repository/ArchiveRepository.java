@@ -0,0 +1,78 @@
+package ru.practicum.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public class ArchiveRepository {
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final String HOT_HITS = "from ENDPOINT_HIT where created < :cutoff " +
+            "and app_id is not null and uri_id is not null";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final ReadDatabase readDatabase;
+
+    public ArchiveRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource,
+                             ReadDatabase readDatabase) {
+        this.jdbcTemplate = jdbcTemplate;
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(STREAM_FETCH_SIZE);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+        this.readDatabase = readDatabase;
+    }
+
+    // Sorted by uri so the archive writer gets long runs; must run inside a transaction to use a cursor
+    public void forEachHitBefore(LocalDateTime cutoff, RowCallbackHandler handler) {
+        streamingJdbcTemplate.query("select u.uri as uri, a.name as app, h.ip as ip, h.created as created " +
+                "from (select app_id, uri_id, ip, created " + HOT_HITS + ") h " +
+                "join APP a on a.id = h.app_id join URI u on u.id = h.uri_id " +
+                "order by u.uri, a.name, h.created", new MapSqlParameterSource("cutoff", cutoff), handler);
+    }
+
+    public int deleteHitsBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("delete " + HOT_HITS, new MapSqlParameterSource("cutoff", cutoff));
+    }
+
+    public void registerSegment(String name, LocalDateTime to, int hits) {
+        jdbcTemplate.update("insert into ARCHIVE_SEGMENT (name, to_created, hits) values (:name, :to, :hits)",
+                new MapSqlParameterSource()
+                        .addValue("name", name)
+                        .addValue("to", to)
+                        .addValue("hits", hits));
+    }
+
+    public Set<String> findSegmentNames() {
+        return new HashSet<>(jdbcTemplate.getJdbcTemplate().queryForList("select name from ARCHIVE_SEGMENT",
+                String.class));
+    }
+
+    // Distinct (app_id, uri_id, ip) of the hot table, to find the ips that were archived as well
+    public void forEachDistinctIp(LocalDateTime from, LocalDateTime to, List<Integer> uriIds,
+                                  DistinctIpHandler handler) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to);
+        String uriFilter = "";
+        if (uriIds != null) {
+            uriFilter = " and uri_id in (:uriIds)";
+            parameters.addValue("uriIds", uriIds);
+        }
+        readDatabase.getStreamingJdbcTemplate().query("select distinct app_id, uri_id, ip from ENDPOINT_HIT " +
+                "where created >= :from and created < :to and ip is not null" + uriFilter, parameters,
+                (RowCallbackHandler) rs -> handler.accept(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getBytes("ip")));
+    }
+
+    public interface DistinctIpHandler {
+        void accept(int appId, int uriId, byte[] ip);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class DictionaryRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ReadDatabase readDatabase;
+
+    // Runs on the caller's connection; a row inserted concurrently is waited for, then found by the select
+    public Integer upsertApp(String name) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("name", name);
+        jdbcTemplate.update("insert into APP (name) values (:name) on conflict (name) do nothing", parameters);
+        return jdbcTemplate.queryForObject("select id from APP where name = :name", parameters, Integer.class);
+    }
+
+    public Integer upsertUri(String uri) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("uri", uri);
+        jdbcTemplate.update("insert into URI (uri) values (:uri) on conflict (uri) do nothing", parameters);
+        return jdbcTemplate.queryForObject("select id from URI where uri = :uri", parameters, Integer.class);
+    }
+
+    public Map<String, Integer> findAllApps() {
+        Map<String, Integer> apps = new HashMap<>();
+        readDatabase.getJdbcTemplate().query("select id, name from APP", rs -> {
+            apps.put(rs.getString("name"), rs.getInt("id"));
+        });
+        return apps;
+    }
+
+    public Map<String, Integer> findAllUris() {
+        Map<String, Integer> uris = new HashMap<>();
+        readDatabase.getJdbcTemplate().query("select id, uri from URI", rs -> {
+            uris.put(rs.getString("uri"), rs.getInt("id"));
+        });
+        return uris;
+    }
+
+    public Map<String, Integer> findUriIds(Collection<String> uris) {
+        Map<String, Integer> ids = new HashMap<>();
+        readDatabase.getJdbcTemplate().query("select id, uri from URI where uri in (:uris)",
+                new MapSqlParameterSource("uris", uris), rs -> {
+                    ids.put(rs.getString("uri"), rs.getInt("id"));
+                });
+        return ids;
+    }
+
+    public Map<Integer, String> findAppNames(Collection<Integer> ids) {
+        Map<Integer, String> names = new HashMap<>();
+        readDatabase.getJdbcTemplate().query("select id, name from APP where id in (:ids)",
+                new MapSqlParameterSource("ids", ids), rs -> {
+                    names.put(rs.getInt("id"), rs.getString("name"));
+                });
+        return names;
+    }
+
+    public Map<Integer, String> findUris(Collection<Integer> ids) {
+        Map<Integer, String> uris = new HashMap<>();
+        readDatabase.getJdbcTemplate().query("select id, uri from URI where id in (:ids)",
+                new MapSqlParameterSource("ids", ids), rs -> {
+                    uris.put(rs.getInt("id"), rs.getString("uri"));
+                });
+        return uris;
+    }
+}
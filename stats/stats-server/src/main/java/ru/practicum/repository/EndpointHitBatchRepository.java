@@ -0,0 +1,34 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.util.IpAddresses;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class EndpointHitBatchRepository {
+    private static final String INSERT_HIT = "insert into ENDPOINT_HIT (app_id, uri_id, ip, created) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // With reWriteBatchedInserts=true the driver folds the batch into multi-row inserts
+    @Transactional
+    public void saveAll(List<EndpointHit> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_HIT, hits, hits.size(), (ps, hit) -> {
+            ps.setObject(1, hit.getAppId(), Types.INTEGER);
+            ps.setObject(2, hit.getUriId(), Types.INTEGER);
+            ps.setBytes(3, IpAddresses.toBytes(hit.getIp()));
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
+    }
+}
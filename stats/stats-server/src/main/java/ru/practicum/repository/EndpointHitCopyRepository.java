@@ -0,0 +1,86 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.util.IpAddresses;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
+// Streams hits with COPY FROM STDIN (text format) on the connection of the surrounding transaction
+@Repository
+@RequiredArgsConstructor
+public class EndpointHitCopyRepository {
+    private static final String COPY_HITS = "copy ENDPOINT_HIT (app_id, uri_id, ip, created) from stdin";
+    private static final int FLUSH_CHARS = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long copyAll(List<EndpointHit> hits) {
+        if (hits.isEmpty()) {
+            return 0;
+        }
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_HITS);
+            try {
+                StringBuilder rows = new StringBuilder(FLUSH_CHARS + 256);
+                for (EndpointHit hit : hits) {
+                    appendRow(rows, hit);
+                    if (rows.length() >= FLUSH_CHARS) {
+                        write(copyIn, rows);
+                    }
+                }
+                write(copyIn, rows);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+        return copied == null ? 0 : copied;
+    }
+
+    private static void appendRow(StringBuilder rows, EndpointHit hit) {
+        appendValue(rows, hit.getAppId());
+        rows.append('\t');
+        appendValue(rows, hit.getUriId());
+        rows.append('\t');
+        byte[] ip = IpAddresses.toBytes(hit.getIp());
+        if (ip == null) {
+            rows.append("\\N");
+        } else {
+            // bytea hex input; the backslash itself is escaped for the text format
+            rows.append("\\\\x");
+            for (byte b : ip) {
+                rows.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+            }
+        }
+        rows.append('\t');
+        rows.append(hit.getTimestamp()).append('\n');
+    }
+
+    private static void appendValue(StringBuilder rows, Integer value) {
+        if (value == null) {
+            rows.append("\\N");
+        } else {
+            rows.append(value.intValue());
+        }
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        if (rows.length() == 0) {
+            return;
+        }
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+}
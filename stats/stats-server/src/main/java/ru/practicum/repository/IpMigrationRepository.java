@@ -0,0 +1,43 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class IpMigrationRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean isTextColumn() {
+        List<String> types = jdbcTemplate.queryForList("select data_type from information_schema.columns " +
+                "where table_name = 'endpoint_hit' and column_name = 'ip'", String.class);
+        return !types.isEmpty() && !"bytea".equals(types.get(0));
+    }
+
+    public void addBinaryColumn() {
+        jdbcTemplate.execute("alter table ENDPOINT_HIT add column if not exists ip_bin BYTEA");
+    }
+
+    // Rows are handed to the callback as columns (id, created, ip), ordered by id
+    public void findChunk(long afterId, int size, RowCallbackHandler handler) {
+        jdbcTemplate.query("select id, created, ip from ENDPOINT_HIT where id > ? and ip is not null " +
+                "order by id limit ?", handler, afterId, size);
+    }
+
+    public void updateChunk(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("update ENDPOINT_HIT set ip_bin = ? where id = ? and created = ?", rows);
+    }
+
+    @Transactional
+    public void swapColumns() {
+        jdbcTemplate.execute("alter table ENDPOINT_HIT drop column ip");
+        jdbcTemplate.execute("alter table ENDPOINT_HIT rename column ip_bin to ip");
+        jdbcTemplate.execute("create index if not exists ENDPOINT_HIT_uri_created_idx " +
+                "on ENDPOINT_HIT (uri_id, created) include (app_id, ip)");
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// Replay position of each journal segment, written in the same transaction as the replayed hits
+@Repository
+@RequiredArgsConstructor
+public class JournalCheckpointRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public int getPosition(long segment) {
+        List<Integer> positions = jdbcTemplate.queryForList(
+                "select position from HIT_JOURNAL_CHECKPOINT where segment = ?", Integer.class, segment);
+        return positions.isEmpty() ? 0 : positions.get(0);
+    }
+
+    public void savePosition(long segment, int position) {
+        jdbcTemplate.update("insert into HIT_JOURNAL_CHECKPOINT (segment, position) values (?, ?) " +
+                "on conflict (segment) do update set position = excluded.position", segment, position);
+    }
+
+    public List<Long> findSegments() {
+        return jdbcTemplate.queryForList("select segment from HIT_JOURNAL_CHECKPOINT", Long.class);
+    }
+
+    public void delete(long segment) {
+        jdbcTemplate.update("delete from HIT_JOURNAL_CHECKPOINT where segment = ?", segment);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class PartitionRepository {
+    public static final String PARTITION_PREFIX = "endpoint_hit_p";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<String> findPartitionNames() {
+        return jdbcTemplate.queryForList("select child.relname from pg_inherits " +
+                "join pg_class parent on parent.oid = pg_inherits.inhparent " +
+                "join pg_class child on child.oid = pg_inherits.inhrelid " +
+                "where parent.relname = 'endpoint_hit' and child.relname like '" + PARTITION_PREFIX + "%'", String.class);
+    }
+
+    /*
+     * Names and bounds come from PartitionManager, not from user input. Rows of the range already in the default
+     * partition would make the create fail, so they are moved into the new partition while the default one is
+     * detached. Returns the number of rows moved.
+     */
+    @Transactional
+    public int create(String name, LocalDate from, LocalDate to) {
+        String create = "create table if not exists " + name + " partition of ENDPOINT_HIT " +
+                "for values from ('" + from + "') to ('" + to + "')";
+        Boolean misplaced = jdbcTemplate.queryForObject("select exists (select 1 from ENDPOINT_HIT_DEFAULT " +
+                "where created >= ? and created < ?)", Boolean.class, from.atStartOfDay(), to.atStartOfDay());
+        if (!Boolean.TRUE.equals(misplaced)) {
+            jdbcTemplate.execute(create);
+            return 0;
+        }
+        jdbcTemplate.execute("alter table ENDPOINT_HIT detach partition ENDPOINT_HIT_DEFAULT");
+        jdbcTemplate.execute(create);
+        int moved = jdbcTemplate.update("with moved as (delete from ENDPOINT_HIT_DEFAULT " +
+                "where created >= ? and created < ? returning id, app_id, uri_id, ip, created) " +
+                "insert into ENDPOINT_HIT (id, app_id, uri_id, ip, created) " +
+                "select id, app_id, uri_id, ip, created from moved", from.atStartOfDay(), to.atStartOfDay());
+        jdbcTemplate.execute("alter table ENDPOINT_HIT attach partition ENDPOINT_HIT_DEFAULT default");
+        return moved;
+    }
+
+    public void detach(String name) {
+        jdbcTemplate.execute("alter table ENDPOINT_HIT detach partition " + name);
+    }
+
+    public void drop(String name) {
+        jdbcTemplate.execute("drop table if exists " + name);
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+/*
+ * Connections of their own for the statistics queries: the same database as spring.datasource, in a separate pool
+ * (stats-server.read-pool), so /stats never waits for a connection held by a write. The pool and its transaction
+ * manager are not beans, which leaves the auto-configured DataSource and JPA transaction manager to the writes.
+ */
+@Component
+public class ReadDatabase {
+    private static final String POOL_NAME = "stats-read";
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final HikariDataSource pool;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReadDatabase(ReadPoolProperties properties, DataSourceProperties dataSourceProperties,
+                        DataSource dataSource, PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+        DataSource readDataSource = dataSource;
+        PlatformTransactionManager readTransactionManager = transactionManager;
+        if (properties.isEnabled()) {
+            pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            pool.setPoolName(POOL_NAME);
+            pool.setMaximumPoolSize(properties.getMaximumPoolSize());
+            pool.setConnectionTimeout(properties.getConnectionTimeoutMs());
+            pool.setReadOnly(true);
+            pool.setMetricRegistry(meterRegistry);
+            readDataSource = pool;
+            readTransactionManager = new DataSourceTransactionManager(pool);
+        } else {
+            pool = null;
+        }
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(readDataSource);
+        JdbcTemplate streaming = new JdbcTemplate(readDataSource);
+        streaming.setFetchSize(STREAM_FETCH_SIZE);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+        this.transactionTemplate = new TransactionTemplate(readTransactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    // Cursors, and queries that have to see one snapshot, run in here
+    public <T> T read(TransactionCallback<T> callback) {
+        return transactionTemplate.execute(callback);
+    }
+
+    public NamedParameterJdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    // Backed by a cursor, so it has to be consumed inside read()
+    public NamedParameterJdbcTemplate getStreamingJdbcTemplate() {
+        return streamingJdbcTemplate;
+    }
+}
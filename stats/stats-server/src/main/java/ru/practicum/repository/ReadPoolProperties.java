@@ -0,0 +1,17 @@
+package ru.practicum.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "stats-server.read-pool")
+public class ReadPoolProperties {
+    // Off: reads share spring.datasource with the writes
+    private boolean enabled = true;
+    private int maximumPoolSize = 10;
+    private long connectionTimeoutMs = 2000;
+}
@@ -0,0 +1,167 @@
+package ru.practicum.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.BucketKey;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupSegment;
+import ru.practicum.model.ViewStats;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+@Repository
+public class RollupRepository {
+    private static final String UPSERT_BUCKET = "insert into ENDPOINT_HIT_ROLLUP (granularity, app_id, uri_id, bucket_start, hits) " +
+            "values (:granularity, :appId, :uriId, :bucketStart, :hits) " +
+            "on conflict (granularity, bucket_start, uri_id, app_id) " +
+            "do update set hits = ENDPOINT_HIT_ROLLUP.hits + excluded.hits";
+
+    private static final RowMapper<ViewStats> VIEW_STATS_MAPPER = (rs, rowNum) ->
+            new ViewStats(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getLong("hits"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ReadDatabase readDatabase;
+
+    public RollupRepository(NamedParameterJdbcTemplate jdbcTemplate, ReadDatabase readDatabase) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readDatabase = readDatabase;
+    }
+
+    /*
+     * Rows are upserted in primary key order, so concurrent writers wait for each other instead of deadlocking. Their
+     * locks are held until the hits commit: writes of one uri update the same hour and day rows and take turns.
+     */
+    public void increment(List<EndpointHit> hits) {
+        Map<BucketKey, Long> deltas = new TreeMap<>(BucketKey.LOCK_ORDER);
+        for (EndpointHit hit : hits) {
+            if (hit.getAppId() == null || hit.getUriId() == null) {
+                continue;
+            }
+            long delta = hit.getIp() != null ? 1 : 0;
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                BucketKey key = new BucketKey(granularity, hit.getAppId(), hit.getUriId(),
+                        granularity.floor(hit.getTimestamp()));
+                deltas.merge(key, delta, Long::sum);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        SqlParameterSource[] batch = deltas.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("granularity", entry.getKey().getGranularity().name())
+                        .addValue("appId", entry.getKey().getAppId())
+                        .addValue("uriId", entry.getKey().getUriId())
+                        .addValue("bucketStart", entry.getKey().getBucketStart())
+                        .addValue("hits", entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPSERT_BUCKET, batch);
+    }
+
+    public List<ViewStats> getStatistic(List<RollupSegment> segments, List<Integer> uriIds) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        return readDatabase.getJdbcTemplate().query(buildStatisticQuery(segments, uriIds, parameters), parameters,
+                VIEW_STATS_MAPPER);
+    }
+
+    // Backed by a cursor, so it has to be consumed inside ReadDatabase.read and closed
+    public Stream<ViewStats> streamStatistic(List<RollupSegment> segments, List<Integer> uriIds) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        return readDatabase.getStreamingJdbcTemplate().queryForStream(buildStatisticQuery(segments, uriIds, parameters), parameters,
+                VIEW_STATS_MAPPER);
+    }
+
+    // Buckets of every granularity starting in [from, to), for hits that are no longer stored
+    public int deleteBuckets(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update("delete from ENDPOINT_HIT_ROLLUP where bucket_start >= :from and bucket_start < :to",
+                new MapSqlParameterSource()
+                        .addValue("from", from)
+                        .addValue("to", to));
+    }
+
+    // Blocks writers for the duration of the surrounding transaction so no hit is counted twice or missed
+    public Map<RollupGranularity, Integer> rebuild() {
+        jdbcTemplate.getJdbcTemplate().execute("lock table ENDPOINT_HIT in share mode");
+        jdbcTemplate.getJdbcTemplate().update("delete from ENDPOINT_HIT_ROLLUP");
+
+        Map<RollupGranularity, Integer> rows = new LinkedHashMap<>();
+        RollupGranularity finest = RollupGranularity.MINUTE;
+        String trunc = "date_trunc('" + finest.getTruncField() + "', created)";
+        rows.put(finest, jdbcTemplate.update("insert into ENDPOINT_HIT_ROLLUP (granularity, app_id, uri_id, bucket_start, hits) " +
+                "select :granularity, app_id, uri_id, " + trunc + ", count(ip) from ENDPOINT_HIT " +
+                "where app_id is not null and uri_id is not null " +
+                "group by app_id, uri_id, " + trunc, new MapSqlParameterSource("granularity", finest.name())));
+
+        // Coarser levels are derived from the minute level instead of scanning raw hits again
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            if (granularity == finest) {
+                continue;
+            }
+            String bucketTrunc = "date_trunc('" + granularity.getTruncField() + "', bucket_start)";
+            rows.put(granularity, jdbcTemplate.update("insert into ENDPOINT_HIT_ROLLUP (granularity, app_id, uri_id, bucket_start, hits) " +
+                    "select :granularity, app_id, uri_id, " + bucketTrunc + ", sum(hits) from ENDPOINT_HIT_ROLLUP " +
+                    "where granularity = :finest " +
+                    "group by app_id, uri_id, " + bucketTrunc, new MapSqlParameterSource()
+                    .addValue("granularity", granularity.name())
+                    .addValue("finest", finest.name())));
+        }
+        return rows;
+    }
+
+    public long countMismatchedBuckets(RollupGranularity granularity, LocalDateTime start, LocalDateTime end) {
+        String trunc = "date_trunc('" + granularity.getTruncField() + "', created)";
+        String sql = "select count(*) from (" +
+                "select app_id, uri_id, " + trunc + " as bucket_start, count(ip) as hits from ENDPOINT_HIT " +
+                "where app_id is not null and uri_id is not null and created >= :start and created < :end " +
+                "group by app_id, uri_id, " + trunc + ") raw " +
+                "full outer join (" +
+                "select app_id, uri_id, bucket_start, hits from ENDPOINT_HIT_ROLLUP " +
+                "where granularity = :granularity and bucket_start >= :start and bucket_start < :end) rollup " +
+                "on raw.app_id = rollup.app_id and raw.uri_id = rollup.uri_id and raw.bucket_start = rollup.bucket_start " +
+                "where raw.hits is distinct from rollup.hits";
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("granularity", granularity.name())
+                .addValue("start", granularity.floor(start))
+                .addValue("end", granularity.ceil(end));
+        Long mismatches = jdbcTemplate.queryForObject(sql, parameters, Long.class);
+        return mismatches == null ? 0 : mismatches;
+    }
+
+    // All segments are summed in one statement, so a query costs a single round trip
+    private String buildStatisticQuery(List<RollupSegment> segments, List<Integer> uriIds,
+                                       MapSqlParameterSource parameters) {
+        List<String> subqueries = new ArrayList<>();
+        String uriFilter = uriIds == null ? "" : " and uri_id in (:uriIds)";
+        for (int i = 0; i < segments.size(); i++) {
+            RollupSegment segment = segments.get(i);
+            parameters.addValue("from" + i, segment.getFrom());
+            parameters.addValue("to" + i, segment.getTo());
+            if (segment.isRaw()) {
+                subqueries.add("select app_id, uri_id, count(ip) as hits from ENDPOINT_HIT " +
+                        "where created >= :from" + i + " and created < :to" + i + uriFilter +
+                        " group by app_id, uri_id");
+            } else {
+                parameters.addValue("granularity" + i, segment.getGranularity().name());
+                subqueries.add("select app_id, uri_id, hits from ENDPOINT_HIT_ROLLUP " +
+                        "where granularity = :granularity" + i +
+                        " and bucket_start >= :from" + i + " and bucket_start < :to" + i + uriFilter);
+            }
+        }
+        if (uriIds != null) {
+            parameters.addValue("uriIds", uriIds);
+        }
+
+        return "select app_id, uri_id, sum(hits) as hits from (" + String.join(" union all ", subqueries) +
+                ") s group by app_id, uri_id order by hits desc";
+    }
+}
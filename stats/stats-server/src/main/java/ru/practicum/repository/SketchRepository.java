@@ -0,0 +1,80 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.BucketKey;
+import ru.practicum.model.RollupSegment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class SketchRepository {
+    private static final String KEY_CONDITION = "granularity = :granularity and bucket_start = :bucketStart " +
+            "and uri_id = :uriId and app_id = :appId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ReadDatabase readDatabase;
+
+    public boolean insertIfAbsent(BucketKey key, byte[] registers) {
+        return jdbcTemplate.update("insert into ENDPOINT_HIT_SKETCH (granularity, app_id, uri_id, bucket_start, registers) " +
+                "values (:granularity, :appId, :uriId, :bucketStart, :registers) on conflict do nothing",
+                keyParameters(key).addValue("registers", registers)) > 0;
+    }
+
+    public byte[] findForUpdate(BucketKey key) {
+        return jdbcTemplate.queryForObject("select registers from ENDPOINT_HIT_SKETCH where " + KEY_CONDITION +
+                " for update", keyParameters(key), byte[].class);
+    }
+
+    public void update(BucketKey key, byte[] registers) {
+        jdbcTemplate.update("update ENDPOINT_HIT_SKETCH set registers = :registers where " + KEY_CONDITION,
+                keyParameters(key).addValue("registers", registers));
+    }
+
+    public int deleteBuckets(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update("delete from ENDPOINT_HIT_SKETCH where bucket_start >= :from and bucket_start < :to",
+                new MapSqlParameterSource()
+                        .addValue("from", from)
+                        .addValue("to", to));
+    }
+
+    // Rows are handed to the callback as columns (app_id, uri_id, registers)
+    public void forEachSketch(RollupSegment segment, List<Integer> uriIds, RowCallbackHandler handler) {
+        MapSqlParameterSource parameters = segmentParameters(segment, uriIds)
+                .addValue("granularity", segment.getGranularity().name());
+        readDatabase.getJdbcTemplate().query("select app_id, uri_id, registers from ENDPOINT_HIT_SKETCH " +
+                "where granularity = :granularity and bucket_start >= :from and bucket_start < :to" +
+                uriFilter(uriIds), parameters, handler);
+    }
+
+    // Rows are handed to the callback as columns (app_id, uri_id, ip)
+    public void forEachDistinctIp(RollupSegment segment, List<Integer> uriIds, RowCallbackHandler handler) {
+        readDatabase.getJdbcTemplate().query("select distinct app_id, uri_id, ip from ENDPOINT_HIT " +
+                "where created >= :from and created < :to and ip is not null" + uriFilter(uriIds),
+                segmentParameters(segment, uriIds), handler);
+    }
+
+    private MapSqlParameterSource keyParameters(BucketKey key) {
+        return new MapSqlParameterSource()
+                .addValue("granularity", key.getGranularity().name())
+                .addValue("appId", key.getAppId())
+                .addValue("uriId", key.getUriId())
+                .addValue("bucketStart", key.getBucketStart());
+    }
+
+    private MapSqlParameterSource segmentParameters(RollupSegment segment, List<Integer> uriIds) {
+        return new MapSqlParameterSource()
+                .addValue("from", segment.getFrom())
+                .addValue("to", segment.getTo())
+                .addValue("uriIds", uriIds);
+    }
+
+    private String uriFilter(List<Integer> uriIds) {
+        return uriIds == null ? "" : " and uri_id in (:uriIds)";
+    }
+}
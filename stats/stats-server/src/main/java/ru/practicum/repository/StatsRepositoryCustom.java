@@ -0,0 +1,15 @@
+package ru.practicum.repository;
+
+import ru.practicum.dto.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface StatsRepositoryCustom {
+    // uriIds null means all uris; unique counts distinct ips
+    List<ViewStatsDto> getStatistic(LocalDateTime start, LocalDateTime end, List<Integer> uriIds, boolean unique);
+
+    // Cursor-backed; consume inside a transaction and close
+    Stream<ViewStatsDto> streamStatistic(LocalDateTime start, LocalDateTime end, boolean unique);
+}
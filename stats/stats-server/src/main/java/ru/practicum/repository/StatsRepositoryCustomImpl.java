@@ -0,0 +1,51 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import ru.practicum.dto.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Groups on dictionary ids first and joins the names only onto the grouped rows, one ViewStatsDto per row
+@RequiredArgsConstructor
+public class StatsRepositoryCustomImpl implements StatsRepositoryCustom {
+    private static final String AGGREGATE = "select a.name as app, u.uri as uri, s.hits as hits from (" +
+            "select app_id, uri_id, %s as hits from ENDPOINT_HIT where created between :start and :end%s " +
+            "group by app_id, uri_id) s " +
+            "left join APP a on a.id = s.app_id left join URI u on u.id = s.uri_id " +
+            "order by s.hits desc";
+    private static final String ALL = String.format(AGGREGATE, "count(ip)", "");
+    private static final String UNIQUE = String.format(AGGREGATE, "count(distinct ip)", "");
+    private static final String ALL_WITH_URIS = String.format(AGGREGATE, "count(ip)", " and uri_id in (:uriIds)");
+    private static final String UNIQUE_WITH_URIS = String.format(AGGREGATE, "count(distinct ip)",
+            " and uri_id in (:uriIds)");
+
+    private static final RowMapper<ViewStatsDto> VIEW_STATS_DTO_MAPPER = (rs, rowNum) ->
+            new ViewStatsDto(rs.getString(1), rs.getString(2), rs.getLong(3));
+
+    private final ReadDatabase readDatabase;
+
+    @Override
+    public List<ViewStatsDto> getStatistic(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                           boolean unique) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("start", start)
+                .addValue("end", end);
+        if (uriIds == null) {
+            return readDatabase.getJdbcTemplate().query(unique ? UNIQUE : ALL, parameters, VIEW_STATS_DTO_MAPPER);
+        }
+        parameters.addValue("uriIds", uriIds);
+        return readDatabase.getJdbcTemplate().query(unique ? UNIQUE_WITH_URIS : ALL_WITH_URIS, parameters, VIEW_STATS_DTO_MAPPER);
+    }
+
+    @Override
+    public Stream<ViewStatsDto> streamStatistic(LocalDateTime start, LocalDateTime end, boolean unique) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("start", start)
+                .addValue("end", end);
+        return readDatabase.getStreamingJdbcTemplate().queryForStream(unique ? UNIQUE : ALL, parameters, VIEW_STATS_DTO_MAPPER);
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupSegment;
+import ru.practicum.model.TimeSeriesPoint;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class TimeSeriesRepository {
+    private static final RowMapper<TimeSeriesPoint> POINT_MAPPER = (rs, rowNum) ->
+            new TimeSeriesPoint(rs.getInt("uri_id"), rs.getTimestamp("bucket_start").toLocalDateTime(),
+                    rs.getLong("hits"));
+
+    private final ReadDatabase readDatabase;
+
+    // Aligned segments are read from the rollup of the requested granularity, the edges are bucketed from raw hits
+    public List<TimeSeriesPoint> getHits(RollupGranularity granularity, List<RollupSegment> segments,
+                                         List<Integer> uriIds) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("granularity", granularity.name())
+                .addValue("uriIds", uriIds);
+        String trunc = "date_trunc('" + granularity.getTruncField() + "', created)";
+        List<String> subqueries = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            RollupSegment segment = segments.get(i);
+            parameters.addValue("from" + i, segment.getFrom());
+            parameters.addValue("to" + i, segment.getTo());
+            if (segment.isRaw()) {
+                subqueries.add("select uri_id, " + trunc + " as bucket_start, count(ip) as hits from ENDPOINT_HIT " +
+                        "where created >= :from" + i + " and created < :to" + i + " and uri_id in (:uriIds) " +
+                        "group by uri_id, " + trunc);
+            } else {
+                subqueries.add("select uri_id, bucket_start, hits from ENDPOINT_HIT_ROLLUP " +
+                        "where granularity = :granularity and bucket_start >= :from" + i +
+                        " and bucket_start < :to" + i + " and uri_id in (:uriIds)");
+            }
+        }
+        if (subqueries.isEmpty()) {
+            return List.of();
+        }
+        return readDatabase.getJdbcTemplate().query("select uri_id, bucket_start, sum(hits) as hits from (" +
+                String.join(" union all ", subqueries) + ") s group by uri_id, bucket_start", parameters, POINT_MAPPER);
+    }
+
+    public List<TimeSeriesPoint> getUniqueHits(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                               List<Integer> uriIds) {
+        String trunc = "date_trunc('" + granularity.getTruncField() + "', created)";
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("uriIds", uriIds);
+        return readDatabase.getJdbcTemplate().query("select uri_id, " + trunc + " as bucket_start, count(distinct ip) as hits " +
+                "from ENDPOINT_HIT where created >= :from and created < :to and uri_id in (:uriIds) " +
+                "group by uri_id, " + trunc, parameters, POINT_MAPPER);
+    }
+
+    // Distinct ips per uri and bucket, streamed; used to find ips that are both archived and still in the table
+    public void forEachDistinctIp(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                  List<Integer> uriIds, BucketIpHandler handler) {
+        String trunc = "date_trunc('" + granularity.getTruncField() + "', created)";
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("uriIds", uriIds);
+        readDatabase.getStreamingJdbcTemplate().query("select distinct uri_id, " + trunc + " as bucket_start, ip " +
+                "from ENDPOINT_HIT where created >= :from and created < :to and uri_id in (:uriIds) " +
+                "and ip is not null", parameters, (RowCallbackHandler) rs -> handler.accept(rs.getInt("uri_id"),
+                rs.getTimestamp("bucket_start").toLocalDateTime(), rs.getBytes("ip")));
+    }
+
+    public interface BucketIpHandler {
+        void accept(int uriId, LocalDateTime bucketStart, byte[] ip);
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.repository.DictionaryRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// In-process cache of the APP and URI dictionaries; ids never change once assigned, so entries are never evicted
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DictionaryService {
+    private final DictionaryRepository dictionaryRepository;
+    private final Map<String, Integer> appIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> appNames = new ConcurrentHashMap<>();
+    private final Map<String, Integer> uriIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> uris = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        dictionaryRepository.findAllApps().forEach((name, id) -> remember(appIds, appNames, name, id));
+        dictionaryRepository.findAllUris().forEach((uri, id) -> remember(uriIds, uris, uri, id));
+        log.info("Loaded dictionaries: {} apps, {} uris", appIds.size(), uriIds.size());
+    }
+
+    public Integer getOrCreateAppId(String name) {
+        return getOrCreate(appIds, appNames, name, dictionaryRepository::upsertApp);
+    }
+
+    public Integer getOrCreateUriId(String uri) {
+        return getOrCreate(uriIds, uris, uri, dictionaryRepository::upsertUri);
+    }
+
+    // Unknown uris have never been hit, so they are simply left out
+    public List<Integer> findUriIds(Collection<String> requested) {
+        List<String> missing = requested.stream()
+                .filter(uri -> !uriIds.containsKey(uri))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            dictionaryRepository.findUriIds(missing).forEach((uri, id) -> remember(uriIds, uris, uri, id));
+        }
+        List<Integer> ids = new ArrayList<>(requested.size());
+        for (String uri : requested) {
+            Integer id = uriIds.get(uri);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    public String getAppName(Integer id) {
+        String name = id == null ? null : appNames.get(id);
+        return name != null || id == null ? name : getAppNames(List.of(id)).get(id);
+    }
+
+    public String getUri(Integer id) {
+        String uri = id == null ? null : uris.get(id);
+        return uri != null || id == null ? uri : getUris(List.of(id)).get(id);
+    }
+
+    public Map<Integer, String> getAppNames(Collection<Integer> ids) {
+        return resolve(ids, appNames, appIds, dictionaryRepository::findAppNames);
+    }
+
+    public Map<Integer, String> getUris(Collection<Integer> ids) {
+        return resolve(ids, uris, uriIds, dictionaryRepository::findUris);
+    }
+
+    private Integer getOrCreate(Map<String, Integer> ids, Map<Integer, String> values, String value,
+                                Function<String, Integer> upsert) {
+        if (value == null) {
+            return null;
+        }
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = upsert.apply(value);
+            rememberAfterCommit(ids, values, value, id);
+        }
+        return id;
+    }
+
+    // The row is inserted in the caller's transaction, a rollback must not leave its id in the cache
+    private void rememberAfterCommit(Map<String, Integer> ids, Map<Integer, String> values, String value,
+                                     Integer id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(ids, values, value, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(ids, values, value, id);
+            }
+        });
+    }
+
+    private Map<Integer, String> resolve(Collection<Integer> requested, Map<Integer, String> values,
+                                         Map<String, Integer> ids,
+                                         Function<Collection<Integer>, Map<Integer, String>> loader) {
+        List<Integer> missing = requested.stream()
+                .filter(id -> id != null && !values.containsKey(id))
+                .distinct()
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            loader.apply(missing).forEach((id, value) -> remember(ids, values, value, id));
+        }
+        Map<Integer, String> resolved = new HashMap<>();
+        for (Integer id : requested) {
+            if (id != null) {
+                resolved.put(id, values.get(id));
+            }
+        }
+        return resolved;
+    }
+
+    private void remember(Map<String, Integer> ids, Map<Integer, String> values, String value, Integer id) {
+        values.put(id, value);
+        ids.put(value, id);
+    }
+}
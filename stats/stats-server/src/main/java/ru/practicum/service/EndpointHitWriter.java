@@ -0,0 +1,74 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.cache.StatsQueryCache;
+import ru.practicum.ingestion.IngestionProperties;
+import ru.practicum.metrics.StatsMetrics;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.repository.EndpointHitBatchRepository;
+import ru.practicum.repository.EndpointHitCopyRepository;
+import ru.practicum.window.HeavyHitters;
+import ru.practicum.window.SlidingWindowCounters;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Single write path for hits: raw rows and rollups are updated in one transaction, in-memory state after the commit
+@Service
+@RequiredArgsConstructor
+public class EndpointHitWriter {
+    private final EndpointHitBatchRepository batchRepository;
+    private final EndpointHitCopyRepository copyRepository;
+    private final IngestionProperties ingestionProperties;
+    private final RollupService rollupService;
+    private final SketchService sketchService;
+    private final DictionaryService dictionaryService;
+    private final StatsQueryCache statsQueryCache;
+    private final SlidingWindowCounters slidingWindowCounters;
+    private final HeavyHitters heavyHitters;
+    private final StatsMetrics statsMetrics;
+
+    @Value("${stats-server.sketch.enabled:true}")
+    private boolean sketchEnabled;
+
+    @Transactional
+    public void write(List<EndpointHit> endpointHits) {
+        if (endpointHits.isEmpty()) {
+            return;
+        }
+        // New values reach the dictionary cache only after the commit, so the batch resolves each of them once
+        Map<String, Integer> appIds = new HashMap<>();
+        Map<String, Integer> uriIds = new HashMap<>();
+        for (EndpointHit endpointHit : endpointHits) {
+            endpointHit.setAppId(appIds.computeIfAbsent(endpointHit.getApp(), dictionaryService::getOrCreateAppId));
+            endpointHit.setUriId(uriIds.computeIfAbsent(endpointHit.getUri(), dictionaryService::getOrCreateUriId));
+        }
+        long started = System.nanoTime();
+        if (endpointHits.size() >= ingestionProperties.getCopyThreshold()) {
+            copyRepository.copyAll(endpointHits);
+            statsMetrics.recordWrite("copy", endpointHits.size(), System.nanoTime() - started);
+        } else {
+            batchRepository.saveAll(endpointHits);
+            statsMetrics.recordWrite("batch", endpointHits.size(), System.nanoTime() - started);
+        }
+        rollupService.increment(endpointHits);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (sketchEnabled) {
+                    // Stored by the sketch flusher, outside of any write transaction
+                    sketchService.add(endpointHits);
+                }
+                statsQueryCache.onHitsCommitted(endpointHits);
+                slidingWindowCounters.add(endpointHits);
+                heavyHitters.add(endpointHits);
+            }
+        });
+    }
+}
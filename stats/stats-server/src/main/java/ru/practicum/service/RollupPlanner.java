@@ -0,0 +1,42 @@
+package ru.practicum.service;
+
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupSegment;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class RollupPlanner {
+
+    private RollupPlanner() {
+    }
+
+    // Covers [from, to) with the coarsest aligned buckets available, leaving only the unaligned edges for the raw table
+    public static List<RollupSegment> plan(LocalDateTime from, LocalDateTime to, RollupGranularity... coarsestFirst) {
+        List<RollupSegment> segments = new ArrayList<>();
+        plan(from, to, coarsestFirst, 0, segments);
+        return segments;
+    }
+
+    private static void plan(LocalDateTime from, LocalDateTime to, RollupGranularity[] granularities, int level,
+                             List<RollupSegment> segments) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (level == granularities.length) {
+            segments.add(new RollupSegment(null, from, to));
+            return;
+        }
+        RollupGranularity granularity = granularities[level];
+        LocalDateTime alignedFrom = granularity.ceil(from);
+        LocalDateTime alignedTo = granularity.floor(to);
+        if (!alignedFrom.isBefore(alignedTo)) {
+            plan(from, to, granularities, level + 1, segments);
+            return;
+        }
+        plan(from, alignedFrom, granularities, level + 1, segments);
+        segments.add(new RollupSegment(granularity, alignedFrom, alignedTo));
+        plan(alignedTo, to, granularities, level + 1, segments);
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.service;
+
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.ViewStats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface RollupService {
+    void increment(List<EndpointHit> endpointHits);
+
+    List<ViewStats> getStatistic(LocalDateTime start, LocalDateTime end, List<Integer> uriIds);
+
+    Stream<ViewStats> streamStatistic(LocalDateTime start, LocalDateTime end);
+
+    Map<RollupGranularity, Integer> rebuild();
+
+    Map<RollupGranularity, Long> check(LocalDateTime start, LocalDateTime end);
+}
@@ -0,0 +1,62 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupSegment;
+import ru.practicum.model.ViewStats;
+import ru.practicum.repository.RollupRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RollupServiceImpl implements RollupService {
+    private static final RollupGranularity[] COARSEST_FIRST = {
+            RollupGranularity.DAY, RollupGranularity.HOUR, RollupGranularity.MINUTE
+    };
+
+    private final RollupRepository rollupRepository;
+
+    @Transactional
+    public void increment(List<EndpointHit> endpointHits) {
+        rollupRepository.increment(endpointHits);
+    }
+
+    public List<ViewStats> getStatistic(LocalDateTime start, LocalDateTime end, List<Integer> uriIds) {
+        // The API range is inclusive on both ends; timestamps have microsecond precision in Postgres
+        List<RollupSegment> segments = RollupPlanner.plan(start, end.plus(1, ChronoUnit.MICROS), COARSEST_FIRST);
+        log.debug("Rollup plan for [{}, {}]: {}", start, end, segments);
+        return rollupRepository.getStatistic(segments, uriIds);
+    }
+
+    public Stream<ViewStats> streamStatistic(LocalDateTime start, LocalDateTime end) {
+        return rollupRepository.streamStatistic(RollupPlanner.plan(start, end.plus(1, ChronoUnit.MICROS),
+                COARSEST_FIRST), null);
+    }
+
+    @Transactional
+    public Map<RollupGranularity, Integer> rebuild() {
+        Map<RollupGranularity, Integer> rows = rollupRepository.rebuild();
+        log.info("Rebuilt rollups: {}", rows);
+        return rows;
+    }
+
+    public Map<RollupGranularity, Long> check(LocalDateTime start, LocalDateTime end) {
+        Map<RollupGranularity, Long> mismatches = new LinkedHashMap<>();
+        for (RollupGranularity granularity : COARSEST_FIRST) {
+            mismatches.put(granularity, rollupRepository.countMismatchedBuckets(granularity, start, end));
+        }
+        log.info("Rollup consistency check for [{}, {}): {}", start, end, mismatches);
+        return mismatches;
+    }
+}
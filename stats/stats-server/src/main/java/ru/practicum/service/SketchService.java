@@ -0,0 +1,13 @@
+package ru.practicum.service;
+
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.ViewStats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SketchService {
+    void add(List<EndpointHit> endpointHits);
+
+    List<ViewStats> getUniqueStatistic(LocalDateTime start, LocalDateTime end, List<Integer> uriIds);
+}
@@ -0,0 +1,198 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ingestion.IngestionLimiter;
+import ru.practicum.model.AppUri;
+import ru.practicum.model.BucketKey;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupSegment;
+import ru.practicum.model.ViewStats;
+import ru.practicum.repository.SketchRepository;
+import ru.practicum.sketch.HyperLogLog;
+import ru.practicum.util.IpAddresses;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/*
+ * Committed hits are folded into in-memory sketches, which a single flusher thread merges into ENDPOINT_HIT_SKETCH
+ * every flushIntervalMs, so writing a hit never touches a sketch row. Queries merge the sketches not flushed yet as
+ * well: merging is idempotent, a sketch that is already stored is not counted twice.
+ */
+@Slf4j
+@Service
+public class SketchServiceImpl implements SketchService {
+    // A sketch is 4 KB, so minute buckets would cost more than they save
+    private static final RollupGranularity[] COARSEST_FIRST = {RollupGranularity.DAY, RollupGranularity.HOUR};
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final SketchRepository sketchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IngestionLimiter ingestionLimiter;
+    // Adders share the read lock, the flusher takes the write lock to swap the pending map
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Map<BucketKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+    private volatile Map<BucketKey, HyperLogLog> flushing = Map.of();
+    private final ScheduledExecutorService flusher;
+
+    public SketchServiceImpl(SketchRepository sketchRepository, TransactionTemplate transactionTemplate,
+                             IngestionLimiter ingestionLimiter,
+                             @Value("${stats-server.sketch.flush-interval-ms:5000}") long flushIntervalMs) {
+        this.sketchRepository = sketchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ingestionLimiter = ingestionLimiter;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sketch-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    public void add(List<EndpointHit> endpointHits) {
+        swapLock.readLock().lock();
+        try {
+            for (EndpointHit hit : endpointHits) {
+                if (hit.getAppId() == null || hit.getUriId() == null || hit.getIp() == null) {
+                    continue;
+                }
+                byte[] ip = IpAddresses.toBytes(hit.getIp());
+                for (RollupGranularity granularity : COARSEST_FIRST) {
+                    BucketKey key = new BucketKey(granularity, hit.getAppId(), hit.getUriId(),
+                            granularity.floor(hit.getTimestamp()));
+                    HyperLogLog sketch = pending.computeIfAbsent(key, k -> new HyperLogLog());
+                    synchronized (sketch) {
+                        sketch.add(ip);
+                    }
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public List<ViewStats> getUniqueStatistic(LocalDateTime start, LocalDateTime end, List<Integer> uriIds) {
+        List<RollupSegment> segments = RollupPlanner.plan(start, end.plus(1, ChronoUnit.MICROS), COARSEST_FIRST);
+        log.debug("Sketch plan for [{}, {}]: {}", start, end, segments);
+
+        Map<AppUri, HyperLogLog> merged = new HashMap<>();
+        for (RollupSegment segment : segments) {
+            if (segment.isRaw()) {
+                sketchRepository.forEachDistinctIp(segment, uriIds, rs -> sketchFor(merged, rs.getInt("app_id"),
+                        rs.getInt("uri_id")).add(rs.getBytes("ip")));
+            } else {
+                sketchRepository.forEachSketch(segment, uriIds, rs -> sketchFor(merged, rs.getInt("app_id"),
+                        rs.getInt("uri_id")).merge(HyperLogLog.fromBytes(rs.getBytes("registers"))));
+                mergeUnflushed(flushing, segment, uriIds, merged);
+                mergeUnflushed(pending, segment, uriIds, merged);
+            }
+        }
+
+        return merged.entrySet().stream()
+                .map(entry -> new ViewStats(entry.getKey().getAppId(), entry.getKey().getUriId(),
+                        entry.getValue().estimate()))
+                .sorted(Comparator.comparing(ViewStats::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private void mergeUnflushed(Map<BucketKey, HyperLogLog> sketches, RollupSegment segment, List<Integer> uriIds,
+                                Map<AppUri, HyperLogLog> merged) {
+        sketches.forEach((key, sketch) -> {
+            if (key.getGranularity() == segment.getGranularity()
+                    && !key.getBucketStart().isBefore(segment.getFrom())
+                    && key.getBucketStart().isBefore(segment.getTo())
+                    && (uriIds == null || uriIds.contains(key.getUriId()))) {
+                synchronized (sketch) {
+                    sketchFor(merged, key.getAppId(), key.getUriId()).merge(sketch);
+                }
+            }
+        });
+    }
+
+    private HyperLogLog sketchFor(Map<AppUri, HyperLogLog> merged, Integer appId, Integer uriId) {
+        return merged.computeIfAbsent(new AppUri(appId, uriId), key -> new HyperLogLog());
+    }
+
+    // Stays visible to queries as flushing until it is committed, and goes back to pending if the write fails
+    private void flush() {
+        Map<BucketKey, HyperLogLog> batch;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            flushing = batch;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        try {
+            ingestionLimiter.acquire();
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+            } finally {
+                ingestionLimiter.release();
+            }
+            log.debug("Flushed {} sketches", batch.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            requeue(batch);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} sketches, retrying with the next flush", batch.size(), e);
+            requeue(batch);
+        } finally {
+            flushing = Map.of();
+        }
+    }
+
+    private void write(Map<BucketKey, HyperLogLog> batch) {
+        Map<BucketKey, HyperLogLog> ordered = new TreeMap<>(BucketKey.LOCK_ORDER);
+        ordered.putAll(batch);
+        for (Map.Entry<BucketKey, HyperLogLog> entry : ordered.entrySet()) {
+            BucketKey key = entry.getKey();
+            if (!sketchRepository.insertIfAbsent(key, entry.getValue().toBytes())) {
+                HyperLogLog stored = HyperLogLog.fromBytes(sketchRepository.findForUpdate(key));
+                sketchRepository.update(key, stored.merge(entry.getValue()).toBytes());
+            }
+        }
+    }
+
+    private void requeue(Map<BucketKey, HyperLogLog> batch) {
+        swapLock.readLock().lock();
+        try {
+            batch.forEach((key, sketch) -> {
+                HyperLogLog current = pending.computeIfAbsent(key, k -> new HyperLogLog());
+                synchronized (current) {
+                    current.merge(sketch);
+                }
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+}
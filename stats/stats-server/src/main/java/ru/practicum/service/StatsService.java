@@ -1,14 +1,29 @@
 package ru.practicum.service;
 
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.TimeSeriesDto;
 import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.RollupGranularity;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatsService {
     EndpointHitDto addStatistic(EndpointHitDto endpointHitDto);
 
-    List<ViewStatsDto> getStatistic(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
+    int addStatistics(List<EndpointHitDto> endpointHitDtos);
+
+    List<ViewStatsDto> getStatistic(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                    Boolean approximate);
+
+    void streamStatistic(LocalDateTime start, LocalDateTime end, Boolean unique, Boolean approximate,
+                         Consumer<ViewStatsDto> consumer);
+
+    List<ViewStatsDto> getTop(int k, Duration window, Boolean exact);
+
+    TimeSeriesDto getTimeSeries(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                RollupGranularity granularity, Boolean unique);
 
 }
@@ -2,62 +2,382 @@ package ru.practicum.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import ru.practicum.archive.ArchiveKey;
+import ru.practicum.archive.ArchiveStore;
+import ru.practicum.cache.StatsQueryCache;
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.TimeSeriesDto;
 import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.exception.InvalidParameterException;
 import ru.practicum.exception.StartEndDateTimeException;
 import ru.practicum.model.EndpointHit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupSegment;
+import ru.practicum.model.TimeSeriesPoint;
+import ru.practicum.model.ViewStats;
 import ru.practicum.mapper.EndpointHitMapper;
+import ru.practicum.repository.ArchiveRepository;
+import ru.practicum.repository.ReadDatabase;
 import ru.practicum.repository.StatsRepository;
+import ru.practicum.repository.TimeSeriesRepository;
+import ru.practicum.window.HeavyHitters;
+import ru.practicum.window.SlidingWindowCounters;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/*
+ * Reads answered from the sliding window, the heavy hitters or the query cache run outside of any transaction and
+ * never take a pooled connection; a read-only transaction of the read pool is opened only around a database load.
+ */
 @Slf4j
 @Service
-@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class StatsServiceImpl implements StatsService {
+    private static final DateTimeFormatter BUCKET_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final StatsRepository statsRepository;
+    private final EndpointHitWriter endpointHitWriter;
+    private final RollupService rollupService;
+    private final SketchService sketchService;
+    private final DictionaryService dictionaryService;
+    private final StatsQueryCache statsQueryCache;
+    private final SlidingWindowCounters slidingWindowCounters;
+    private final HeavyHitters heavyHitters;
+    private final TimeSeriesRepository timeSeriesRepository;
+    private final ArchiveStore archiveStore;
+    private final ArchiveRepository archiveRepository;
     private final EndpointHitMapper endpointHitMapper;
+    private final ReadDatabase readDatabase;
+
+    @Value("${stats-server.rollup.enabled:true}")
+    private boolean rollupEnabled;
+
+    @Value("${stats-server.sketch.enabled:true}")
+    private boolean sketchEnabled;
+
+    @Value("${stats-server.timeseries.max-buckets:10000}")
+    private int timeSeriesMaxBuckets;
 
     @Transactional
     public EndpointHitDto addStatistic(EndpointHitDto endpointHitDto) {
         EndpointHit endpointHit = endpointHitMapper.toEndpointHit(endpointHitDto);
-        log.info("Added EndpointHit: {}", endpointHitDto);
+        endpointHitWriter.write(List.of(endpointHit));
+        log.debug("Added EndpointHit: {}", endpointHitDto);
 
-        return endpointHitMapper.toEndpointHitDto(statsRepository.save(endpointHit));
+        return endpointHitMapper.toEndpointHitDto(endpointHit);
     }
 
-    public List<ViewStatsDto> getStatistic(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+    @Transactional
+    public int addStatistics(List<EndpointHitDto> endpointHitDtos) {
+        List<EndpointHit> endpointHits = endpointHitDtos.stream()
+                .map(endpointHitMapper::toEndpointHit)
+                .collect(Collectors.toList());
+        endpointHitWriter.write(endpointHits);
+        log.info("Added {} EndpointHits in batch", endpointHits.size());
+
+        return endpointHits.size();
+    }
+
+    public List<ViewStatsDto> getStatistic(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                           Boolean approximate) {
         checkDate(start, end);
-        if (uris == null) {
-            if (unique) {
-                log.info("Received statistics with unique IP");
-                return statsRepository.getStatisticsWithUniqueIp(start, end).stream()
-                        .map(endpointHitMapper::toViewStatsDto)
-                        .collect(Collectors.toList());
-            } else {
-                log.info("Received all statistics");
-                return statsRepository.getAllStatistics(start, end).stream()
-                        .map(endpointHitMapper::toViewStatsDto)
-                        .collect(Collectors.toList());
+        Optional<List<ViewStatsDto>> recent = slidingWindowCounters.getStatistic(start, end, uris, unique);
+        if (recent.isPresent()) {
+            log.info("Received statistics from the sliding window, uris {}", uris);
+            return recent.get();
+        }
+        // The partial bucket at the end of a range reaching up to now usually comes from the window as well
+        return statsQueryCache.get(start, end, uris, unique, approximate, (from, to) -> slidingWindowCounters
+                .getStatistic(from, to, uris, unique)
+                .orElseGet(() -> readOnly(status -> loadStatistic(from, to, uris, unique, approximate))));
+    }
+
+    // Rows go to the consumer as the cursor advances, so memory does not grow with the number of uris
+    public void streamStatistic(LocalDateTime start, LocalDateTime end, Boolean unique, Boolean approximate,
+                                Consumer<ViewStatsDto> consumer) {
+        checkDate(start, end);
+        if (unique && approximate && sketchEnabled) {
+            // Sketches are merged in memory anyway, there is nothing to stream from the database
+            getStatistic(start, end, null, true, true).forEach(consumer);
+            return;
+        }
+        Optional<List<ViewStatsDto>> recent = slidingWindowCounters.getStatistic(start, end, null, unique);
+        if (recent.isPresent()) {
+            log.info("Received statistics from the sliding window");
+            recent.get().forEach(consumer);
+            return;
+        }
+        LocalDateTime watermark = archiveStore.getWatermark();
+        if (watermark != null && start.isBefore(watermark)) {
+            // Archived and hot rows are merged in memory
+            getStatistic(start, end, null, unique, approximate).forEach(consumer);
+            return;
+        }
+        log.info("Streaming statistics, unique {}", unique);
+        readOnly(status -> {
+            try (Stream<ViewStatsDto> viewStats = openStream(start, end, unique)) {
+                viewStats.forEach(consumer);
+            }
+            return null;
+        });
+    }
+
+    public List<ViewStatsDto> getTop(int k, Duration window, Boolean exact) {
+        if (!exact) {
+            Optional<List<ViewStats>> top = heavyHitters.getTop(k, window);
+            if (top.isPresent()) {
+                log.info("Received top {} for window {} from heavy hitters", k, window);
+                return toViewStatsDtos(top.get());
+            }
+        }
+        log.info("Received exact top {} for window {}", k, window);
+        LocalDateTime end = LocalDateTime.now();
+        return readOnly(status -> loadStatistic(end.minus(window), end, null, false, false)).stream()
+                .limit(k)
+                .collect(Collectors.toList());
+    }
+
+    public TimeSeriesDto getTimeSeries(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                       RollupGranularity granularity, Boolean unique) {
+        checkDate(start, end);
+        List<LocalDateTime> buckets = new ArrayList<>();
+        for (LocalDateTime bucket = granularity.floor(start); !bucket.isAfter(end);
+             bucket = bucket.plus(1, granularity.getUnit())) {
+            if (buckets.size() == timeSeriesMaxBuckets) {
+                throw new InvalidParameterException("More than " + timeSeriesMaxBuckets + " buckets requested");
+            }
+            buckets.add(bucket);
+        }
+        Map<LocalDateTime, Integer> bucketIndexes = new HashMap<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            bucketIndexes.put(buckets.get(i), i);
+        }
+
+        List<String> distinctUris = uris.stream().distinct().collect(Collectors.toList());
+        Map<String, long[]> hits = new LinkedHashMap<>();
+        distinctUris.forEach(uri -> hits.put(uri, new long[buckets.size()]));
+        List<Integer> uriIds = dictionaryService.findUriIds(distinctUris);
+        if (!uriIds.isEmpty()) {
+            Map<Integer, String> uriNames = dictionaryService.getUris(uriIds);
+            for (TimeSeriesPoint point : findTimeSeriesPoints(start, end, uriIds, granularity, unique)) {
+                Integer index = bucketIndexes.get(point.getBucketStart());
+                if (index != null) {
+                    hits.get(uriNames.get(point.getUriId()))[index] += point.getHits();
+                }
+            }
+        }
+        if (unique) {
+            mergeArchivedUniqueHits(start, end, granularity, distinctUris, uriIds, bucketIndexes, hits);
+        }
+        log.info("Received time series for uris {}, granularity {}, unique {}", uris, granularity, unique);
+
+        return TimeSeriesDto.builder()
+                .granularity(granularity.name())
+                .unique(unique)
+                .buckets(buckets.stream().map(BUCKET_FORMATTER::format).collect(Collectors.toList()))
+                .series(hits.entrySet().stream()
+                        .map(entry -> new TimeSeriesDto.Series(entry.getKey(), entry.getValue()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private List<TimeSeriesPoint> findTimeSeriesPoints(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                                       RollupGranularity granularity, Boolean unique) {
+        LocalDateTime endExclusive = end.plus(1, ChronoUnit.MICROS);
+        if (unique) {
+            return timeSeriesRepository.getUniqueHits(granularity, start, endExclusive, uriIds);
+        }
+        List<RollupSegment> segments = rollupEnabled
+                ? RollupPlanner.plan(start, endExclusive, granularity)
+                : List.of(new RollupSegment(null, start, endExclusive));
+        return timeSeriesRepository.getHits(granularity, segments, uriIds);
+    }
+
+    /*
+     * Unique buckets before the watermark add the archived ips of each uri and bucket, minus those the table also
+     * has in that bucket: hits stored after the export, and the bucket the watermark falls into.
+     */
+    private void mergeArchivedUniqueHits(LocalDateTime start, LocalDateTime end, RollupGranularity granularity,
+                                         List<String> uris, List<Integer> uriIds,
+                                         Map<LocalDateTime, Integer> bucketIndexes, Map<String, long[]> hits) {
+        LocalDateTime watermark = archiveStore.getWatermark();
+        if (watermark == null || !start.isBefore(watermark)) {
+            return;
+        }
+        LocalDateTime endExclusive = end.plus(1, ChronoUnit.MICROS);
+        LocalDateTime archiveEnd = endExclusive.isBefore(watermark) ? endExclusive : watermark;
+        Map<String, Map<LocalDateTime, Set<ByteBuffer>>> archivedIps =
+                archiveStore.collectIps(start, archiveEnd, uris, granularity);
+        archivedIps.forEach((uri, buckets) -> buckets.forEach((bucket, ips) -> {
+            Integer index = bucketIndexes.get(bucket);
+            if (index != null) {
+                hits.get(uri)[index] += ips.size();
             }
+        }));
+        if (archivedIps.isEmpty() || uriIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime overlapEnd = granularity.ceil(archiveEnd);
+        Map<Integer, String> uriNames = dictionaryService.getUris(uriIds);
+        timeSeriesRepository.forEachDistinctIp(granularity, start,
+                overlapEnd.isBefore(endExclusive) ? overlapEnd : endExclusive, uriIds, (uriId, bucket, ip) -> {
+                    String uri = uriNames.get(uriId);
+                    Set<ByteBuffer> archived = archivedIps.getOrDefault(uri, Map.of()).get(bucket);
+                    Integer index = bucketIndexes.get(bucket);
+                    if (archived != null && index != null && archived.contains(ByteBuffer.wrap(ip))) {
+                        hits.get(uri)[index]--;
+                    }
+                });
+    }
+
+    private Stream<ViewStatsDto> openStream(LocalDateTime start, LocalDateTime end, Boolean unique) {
+        if (unique || !rollupEnabled) {
+            return statsRepository.streamStatistic(start, end, unique);
+        }
+        return rollupService.streamStatistic(start, end)
+                .map(stats -> endpointHitMapper.toViewStatsDto(stats, dictionaryService.getAppName(stats.getAppId()),
+                        dictionaryService.getUri(stats.getUriId())));
+    }
+
+    private List<ViewStatsDto> loadStatistic(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                             Boolean approximate) {
+        LocalDateTime watermark = archiveStore.getWatermark();
+        if (watermark == null || !start.isBefore(watermark) || (unique && approximate && sketchEnabled)) {
+            return loadHotStatistic(start, end, uris, unique, approximate);
+        }
+        return loadArchivedStatistic(start, end, uris, unique, watermark);
+    }
+
+    /*
+     * Hits before the watermark come from the archive, the rest from the database. Rows before the watermark still
+     * in the table were stored after the export (late replays, backfills) and are added until the next export.
+     */
+    private List<ViewStatsDto> loadArchivedStatistic(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                                     Boolean unique, LocalDateTime watermark) {
+        LocalDateTime endExclusive = end.plus(1, ChronoUnit.MICROS);
+        LocalDateTime archiveEnd = endExclusive.isBefore(watermark) ? endExclusive : watermark;
+        boolean hot = endExclusive.isAfter(watermark);
+        log.info("Received statistics from the archive up to {}, uris {}, unique {}", archiveEnd, uris, unique);
+
+        Map<ArchiveKey, Long> hits = new HashMap<>();
+        if (unique) {
+            Map<ArchiveKey, Set<ByteBuffer>> archivedIps = archiveStore.collectIps(start, archiveEnd, uris);
+            archivedIps.forEach((key, ips) -> hits.put(key, (long) ips.size()));
+            mergeHotUniqueStatistic(start, end, uris, archivedIps, hits);
         } else {
-            if (unique) {
-                log.info("Received statistics with unique IP and URI");
-                return statsRepository.getStatisticsWithUniqueIpAndUris(start, end, uris).stream()
-                        .map(endpointHitMapper::toViewStatsDto)
-                        .collect(Collectors.toList());
-            } else {
-                log.info("Received statistics with URI");
-                return statsRepository.getAllStatisticsWithUris(start, end, uris).stream()
-                        .map(endpointHitMapper::toViewStatsDto)
-                        .collect(Collectors.toList());
+            hits.putAll(archiveStore.count(start, archiveEnd, uris));
+            // Rollups also hold the archived hits, so the late rows are counted from the table
+            loadLateStatistic(start, archiveEnd.minus(1, ChronoUnit.MICROS), uris).forEach(stats ->
+                    hits.merge(new ArchiveKey(stats.getApp(), stats.getUri()), stats.getHits(), Long::sum));
+            if (hot) {
+                loadHotStatistic(watermark, end, uris, false, false).forEach(stats ->
+                        hits.merge(new ArchiveKey(stats.getApp(), stats.getUri()), stats.getHits(), Long::sum));
             }
         }
+        return hits.entrySet().stream()
+                .sorted(Map.Entry.<ArchiveKey, Long>comparingByValue(Comparator.reverseOrder()))
+                .map(entry -> new ViewStatsDto(entry.getKey().getApp(), entry.getKey().getUri(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    /*
+     * Distinct ips in the table are counted by the database. Only uris that also have archived ips are read ip by
+     * ip, so that an ip both archived and in the table is counted once; the hot ips are never collected.
+     */
+    private void mergeHotUniqueStatistic(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                         Map<ArchiveKey, Set<ByteBuffer>> archivedIps, Map<ArchiveKey, Long> hits) {
+        loadHotStatistic(start, end, uris, true, false).forEach(stats ->
+                hits.merge(new ArchiveKey(stats.getApp(), stats.getUri()), stats.getHits(), Long::sum));
+        if (archivedIps.isEmpty()) {
+            return;
+        }
+        List<Integer> archivedUriIds = dictionaryService.findUriIds(archivedIps.keySet().stream()
+                .map(ArchiveKey::getUri)
+                .distinct()
+                .collect(Collectors.toList()));
+        if (archivedUriIds.isEmpty()) {
+            return;
+        }
+        archiveRepository.forEachDistinctIp(start, end.plus(1, ChronoUnit.MICROS), archivedUriIds,
+                (appId, uriId, ip) -> {
+                    ArchiveKey key = new ArchiveKey(dictionaryService.getAppName(appId),
+                            dictionaryService.getUri(uriId));
+                    Set<ByteBuffer> archived = archivedIps.get(key);
+                    if (archived != null && archived.contains(ByteBuffer.wrap(ip))) {
+                        hits.merge(key, -1L, Long::sum);
+                    }
+                });
+    }
+
+    private List<ViewStatsDto> loadLateStatistic(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        List<Integer> uriIds = null;
+        if (uris != null) {
+            uriIds = dictionaryService.findUriIds(uris);
+            if (uriIds.isEmpty()) {
+                return List.of();
+            }
+        }
+        return statsRepository.getStatistic(start, end, uriIds, false);
+    }
+
+    private List<ViewStatsDto> loadHotStatistic(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                                Boolean unique, Boolean approximate) {
+        List<Integer> uriIds = null;
+        if (uris != null) {
+            uriIds = dictionaryService.findUriIds(uris);
+            if (uriIds.isEmpty()) {
+                return List.of();
+            }
+        }
+        if (unique && approximate && sketchEnabled) {
+            log.info("Received approximate statistics with unique IP, uriIds {}", uriIds);
+            return toViewStatsDtos(sketchService.getUniqueStatistic(start, end, uriIds));
+        }
+        if (!unique && rollupEnabled) {
+            log.info("Received statistics from rollups, uriIds {}", uriIds);
+            return toViewStatsDtos(rollupService.getStatistic(start, end, uriIds));
+        }
+        log.info("Received statistics, unique {}, uriIds {}", unique, uriIds);
+        return statsRepository.getStatistic(start, end, uriIds, unique);
+    }
+
+    // Aggregation works on dictionary ids; strings are attached only here, in the final projection
+    private List<ViewStatsDto> toViewStatsDtos(List<ViewStats> viewStats) {
+        List<Integer> appIds = new ArrayList<>(viewStats.size());
+        List<Integer> uriIds = new ArrayList<>(viewStats.size());
+        for (ViewStats stats : viewStats) {
+            appIds.add(stats.getAppId());
+            uriIds.add(stats.getUriId());
+        }
+        Map<Integer, String> appNames = dictionaryService.getAppNames(appIds);
+        Map<Integer, String> uris = dictionaryService.getUris(uriIds);
+        return viewStats.stream()
+                .map(stats -> endpointHitMapper.toViewStatsDto(stats, appNames.get(stats.getAppId()),
+                        uris.get(stats.getUriId())))
+                .collect(Collectors.toList());
+    }
+
+    private <T> T readOnly(TransactionCallback<T> load) {
+        return readDatabase.read(load);
     }
 
     private void checkDate(LocalDateTime startTime, LocalDateTime endTime) {
@@ -0,0 +1,65 @@
+package ru.practicum.sketch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/*
+ * Space-Saving heavy hitters (Metwally et al.). At most capacity items are tracked; a new item takes over the
+ * counter with the smallest count and inherits it as its error, so count is an upper bound and count - error
+ * a lower bound of the true frequency. Any item with a frequency above total / capacity is guaranteed to be kept.
+ */
+public class SpaceSaving<T> {
+    private static final Comparator<Counter<?>> BY_COUNT = Comparator.<Counter<?>>comparingLong(Counter::getCount)
+            .thenComparingLong(counter -> counter.order);
+
+    private final int capacity;
+    private final Map<T, Counter<T>> counters = new HashMap<>();
+    private final TreeSet<Counter<T>> byCount = new TreeSet<>(BY_COUNT);
+    private long order;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized void offer(T item, long increment) {
+        Counter<T> counter = counters.get(item);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += increment;
+        } else if (counters.size() < capacity) {
+            counter = new Counter<>(item, increment, 0, 0);
+            counters.put(item, counter);
+        } else {
+            Counter<T> min = byCount.pollFirst();
+            counters.remove(min.item);
+            counter = new Counter<>(item, min.count + increment, min.count, 0);
+            counters.put(item, counter);
+        }
+        counter.order = order++;
+        byCount.add(counter);
+    }
+
+    public synchronized List<Counter<T>> getCounters() {
+        List<Counter<T>> copy = new ArrayList<>(counters.size());
+        for (Counter<T> counter : counters.values()) {
+            copy.add(new Counter<>(counter.item, counter.count, counter.error, counter.order));
+        }
+        return copy;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Counter<T> {
+        private final T item;
+        private long count;
+        private long error;
+        private long order;
+    }
+}
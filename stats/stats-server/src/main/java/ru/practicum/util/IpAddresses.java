@@ -0,0 +1,82 @@
+package ru.practicum.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.regex.Pattern;
+
+// Every address is stored as 16 bytes, IPv4 as an IPv4-mapped IPv6 address (::ffff:a.b.c.d)
+public final class IpAddresses {
+    public static final int LENGTH = 16;
+
+    private static final Pattern IPV6_LITERAL = Pattern.compile("[0-9a-fA-F:.]+");
+
+    private IpAddresses() {
+    }
+
+    public static byte[] toBytes(String ip) {
+        if (ip == null) {
+            return null;
+        }
+        byte[] bytes = new byte[LENGTH];
+        if (ip.indexOf(':') < 0) {
+            parseIpv4(ip, bytes);
+            return bytes;
+        }
+        // Restricted to literal characters, so InetAddress never falls back to a DNS lookup
+        if (!IPV6_LITERAL.matcher(ip).matches()) {
+            throw new IllegalArgumentException("Invalid IP address: " + ip);
+        }
+        try {
+            byte[] address = InetAddress.getByName(ip).getAddress();
+            if (address.length == 4) {
+                System.arraycopy(address, 0, bytes, 12, 4);
+                bytes[10] = (byte) 0xff;
+                bytes[11] = (byte) 0xff;
+            } else {
+                System.arraycopy(address, 0, bytes, 0, LENGTH);
+            }
+            return bytes;
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid IP address: " + ip, e);
+        }
+    }
+
+    public static String fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length != LENGTH) {
+            throw new IllegalArgumentException("Expected " + LENGTH + " bytes, got " + bytes.length);
+        }
+        try {
+            // InetAddress unwraps IPv4-mapped addresses into Inet4Address, IPv6 comes back in full form
+            return InetAddress.getByAddress(bytes).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid IP address bytes", e);
+        }
+    }
+
+    public static String normalize(String ip) {
+        return fromBytes(toBytes(ip));
+    }
+
+    private static void parseIpv4(String ip, byte[] bytes) {
+        String[] octets = ip.split("\\.", -1);
+        if (octets.length != 4) {
+            throw new IllegalArgumentException("Invalid IP address: " + ip);
+        }
+        bytes[10] = (byte) 0xff;
+        bytes[11] = (byte) 0xff;
+        for (int i = 0; i < 4; i++) {
+            String octet = octets[i];
+            if (octet.isEmpty() || octet.length() > 3 || !octet.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                throw new IllegalArgumentException("Invalid IP address: " + ip);
+            }
+            int value = Integer.parseInt(octet);
+            if (value > 255) {
+                throw new IllegalArgumentException("Invalid IP address: " + ip);
+            }
+            bytes[12 + i] = (byte) value;
+        }
+    }
+}
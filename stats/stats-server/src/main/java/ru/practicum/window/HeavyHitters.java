@@ -0,0 +1,128 @@
+package ru.practicum.window;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.model.AppUri;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.ViewStats;
+import ru.practicum.sketch.SpaceSaving;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+/*
+ * Trending app/uri pairs: one Space-Saving summary per bucket in a ring, merged on read. The merged count of an
+ * item is an upper bound of its hits in the window. Like the sliding-window counters, only traffic seen since
+ * the start of the service is tracked.
+ */
+@Slf4j
+@Component
+public class HeavyHitters {
+    private final TopKProperties properties;
+    private final long bucketSeconds;
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final long startedAt;
+
+    public HeavyHitters(TopKProperties properties) {
+        this.properties = properties;
+        this.bucketSeconds = Math.max(1, properties.getBucket().getSeconds());
+        int size = (int) Math.max(1, (properties.getMaxWindow().getSeconds() + bucketSeconds - 1) / bucketSeconds);
+        this.buckets = new AtomicReferenceArray<>(size);
+        this.startedAt = now();
+    }
+
+    public void add(List<EndpointHit> hits) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long current = bucketOf(now());
+        Map<Long, Map<AppUri, Long>> grouped = new HashMap<>();
+        for (EndpointHit hit : hits) {
+            // Hits stamped ahead of the server clock are counted in the current bucket
+            long bucket = Math.min(current, bucketOf(hit.getTimestamp().toEpochSecond(ZoneOffset.UTC)));
+            if (bucket > current - buckets.length()) {
+                grouped.computeIfAbsent(bucket, key -> new HashMap<>())
+                        .merge(new AppUri(hit.getAppId(), hit.getUriId()), 1L, Long::sum);
+            }
+        }
+        grouped.forEach((bucket, counts) -> {
+            SpaceSaving<AppUri> summary = summaryFor(bucket);
+            if (summary != null) {
+                counts.forEach(summary::offer);
+            }
+        });
+    }
+
+    // Empty when the window is longer than the tracked history, so the caller has to fall back to the exact query
+    public Optional<List<ViewStats>> getTop(int k, Duration window) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        long now = now();
+        long windowBuckets = (window.getSeconds() + bucketSeconds - 1) / bucketSeconds;
+        if (windowBuckets > buckets.length() || now - window.getSeconds() < startedAt) {
+            return Optional.empty();
+        }
+
+        long current = bucketOf(now);
+        Map<AppUri, Long> counts = new HashMap<>();
+        for (long bucket = current - windowBuckets + 1; bucket <= current; bucket++) {
+            Bucket slot = buckets.get(index(bucket));
+            if (slot == null || slot.index != bucket) {
+                continue;
+            }
+            for (SpaceSaving.Counter<AppUri> counter : slot.summary.getCounters()) {
+                counts.merge(counter.getItem(), counter.getCount(), Long::sum);
+            }
+        }
+        return Optional.of(counts.entrySet().stream()
+                .sorted(Map.Entry.<AppUri, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(k)
+                .map(entry -> new ViewStats(entry.getKey().getAppId(), entry.getKey().getUriId(), entry.getValue()))
+                .collect(Collectors.toList()));
+    }
+
+    private SpaceSaving<AppUri> summaryFor(long bucket) {
+        int index = index(bucket);
+        while (true) {
+            Bucket slot = buckets.get(index);
+            if (slot != null && slot.index == bucket) {
+                return slot.summary;
+            }
+            if (slot != null && slot.index > bucket) {
+                return null;
+            }
+            Bucket created = new Bucket(bucket, new SpaceSaving<>(properties.getCapacity()));
+            if (buckets.compareAndSet(index, slot, created)) {
+                return created.summary;
+            }
+        }
+    }
+
+    private long bucketOf(long epochSecond) {
+        return Math.floorDiv(epochSecond, bucketSeconds);
+    }
+
+    private int index(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets.length());
+    }
+
+    private long now() {
+        return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @RequiredArgsConstructor
+    private static class Bucket {
+        private final long index;
+        private final SpaceSaving<AppUri> summary;
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.window;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/*
+ * Per-second hit counters for the last few minutes, kept in a ring of slots. A slot is reused only when its second
+ * has left the window, so an increment racing with the reuse can only be lost for a second nobody may query anymore.
+ * Ranges are answered only from the moment counting started: hits written before the start (or dropped because
+ * they were stamped too far ahead) exist in the database only.
+ */
+@Slf4j
+@Component
+public class SlidingWindowCounters {
+    private final SlidingWindowProperties properties;
+    private final Clock clock;
+    private final long lengthSeconds;
+    private final long skewSeconds;
+    private final AtomicReferenceArray<Slot> slots;
+    private final AtomicLong coveredFrom;
+
+    @Autowired
+    public SlidingWindowCounters(SlidingWindowProperties properties) {
+        this(properties, Clock.systemDefaultZone());
+    }
+
+    SlidingWindowCounters(SlidingWindowProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.lengthSeconds = Math.max(1, properties.getLength().getSeconds());
+        this.skewSeconds = Math.max(0, properties.getClockSkew().getSeconds());
+        this.slots = new AtomicReferenceArray<>((int) (lengthSeconds + skewSeconds + 1));
+        this.coveredFrom = new AtomicLong(now() + 1);
+    }
+
+    public void add(List<EndpointHit> hits) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = now();
+        for (EndpointHit hit : hits) {
+            long second = hit.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            if (second > now + skewSeconds) {
+                coveredFrom.accumulateAndGet(second + 1, Math::max);
+                continue;
+            }
+            if (second <= now - lengthSeconds) {
+                continue;
+            }
+            Slot slot = slotFor(second);
+            if (slot != null) {
+                slot.counters.computeIfAbsent(new Key(hit.getApp(), hit.getUri()), key -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    // Empty when the range is not entirely inside the window and the statistic has to come from the database
+    public Optional<List<ViewStatsDto>> getStatistic(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                                     boolean unique) {
+        if (!properties.isEnabled() || unique || start.getNano() != 0 || end.getNano() != 0) {
+            return Optional.empty();
+        }
+        long now = now();
+        long from = start.toEpochSecond(ZoneOffset.UTC);
+        long to = Math.min(end.toEpochSecond(ZoneOffset.UTC), now + skewSeconds);
+        if (from <= now - lengthSeconds || from < coveredFrom.get()) {
+            return Optional.empty();
+        }
+
+        Set<String> uriFilter = uris == null ? null : Set.copyOf(uris);
+        Map<Key, Long> hits = new HashMap<>();
+        for (long second = from; second <= to; second++) {
+            Slot slot = slots.get(index(second));
+            if (slot == null || slot.second != second) {
+                continue;
+            }
+            slot.counters.forEach((key, counter) -> {
+                if (uriFilter == null || uriFilter.contains(key.uri)) {
+                    hits.merge(key, counter.sum(), Long::sum);
+                }
+            });
+        }
+        return Optional.of(hits.entrySet().stream()
+                .sorted(Map.Entry.<Key, Long>comparingByValue(Comparator.reverseOrder()))
+                .map(entry -> new ViewStatsDto(entry.getKey().app, entry.getKey().uri, entry.getValue()))
+                .collect(Collectors.toList()));
+    }
+
+    private Slot slotFor(long second) {
+        int index = index(second);
+        while (true) {
+            Slot slot = slots.get(index);
+            if (slot != null && slot.second == second) {
+                return slot;
+            }
+            if (slot != null && slot.second > second) {
+                return null;
+            }
+            Slot created = new Slot(second);
+            if (slots.compareAndSet(index, slot, created)) {
+                return created;
+            }
+        }
+    }
+
+    private int index(long second) {
+        return (int) Math.floorMod(second, (long) slots.length());
+    }
+
+    private long now() {
+        return LocalDateTime.now(clock).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @RequiredArgsConstructor
+    private static class Slot {
+        private final long second;
+        private final Map<Key, LongAdder> counters = new ConcurrentHashMap<>();
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final String app;
+        private final String uri;
+    }
+}
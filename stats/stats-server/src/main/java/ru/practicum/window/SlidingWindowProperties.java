@@ -0,0 +1,19 @@
+package ru.practicum.window;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "stats-server.window")
+public class SlidingWindowProperties {
+    private boolean enabled = true;
+    private Duration length = Duration.ofMinutes(10);
+    // Hits stamped up to this far ahead of the server clock are still counted
+    private Duration clockSkew = Duration.ofSeconds(30);
+}
@@ -0,0 +1,21 @@
+package ru.practicum.window;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "stats-server.top")
+public class TopKProperties {
+    private boolean enabled = true;
+    private Duration bucket = Duration.ofMinutes(1);
+    // Longer windows are answered by the exact query
+    private Duration maxWindow = Duration.ofHours(1);
+    // Counters per bucket; frequencies above 1/capacity of the bucket traffic are never missed
+    private int capacity = 1000;
+}
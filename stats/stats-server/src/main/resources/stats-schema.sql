@@ -0,0 +1,66 @@
+-- Tables are created only where missing, existing data and derived aggregates are kept across restarts
+
+-- Dictionaries for app and uri, hits and aggregates reference them by id
+create table if not exists APP (
+    id              INTEGER generated by default as identity,
+    name            VARCHAR(256) not null,
+    constraint APP_PK primary key (id),
+    constraint APP_NAME_UQ unique (name)
+);
+
+create table if not exists URI (
+    id              INTEGER generated by default as identity,
+    uri             VARCHAR(512) not null,
+    constraint URI_PK primary key (id),
+    constraint URI_URI_UQ unique (uri)
+);
+
+-- Range partitions are created and dropped by PartitionManager, the default one catches rows outside of them
+create table if not exists ENDPOINT_HIT (
+    id              BIGINT generated by default as identity,
+    app_id          INTEGER,
+    uri_id          INTEGER,
+    ip              BYTEA,
+    created         TIMESTAMP WITHOUT TIME ZONE not null,
+    constraint ENDPOINT_HIT_PK primary key (id, created)
+) partition by range (created);
+
+create table if not exists ENDPOINT_HIT_DEFAULT partition of ENDPOINT_HIT default;
+
+CREATE INDEX IF NOT EXISTS ENDPOINT_HIT_created_idx ON ENDPOINT_HIT (created);
+
+-- Lets per-uri distinct ip counts run as index-only scans
+CREATE INDEX IF NOT EXISTS ENDPOINT_HIT_uri_created_idx ON ENDPOINT_HIT (uri_id, created) INCLUDE (app_id, ip);
+
+create table if not exists ENDPOINT_HIT_ROLLUP (
+    granularity     VARCHAR(8) not null,
+    app_id          INTEGER not null,
+    uri_id          INTEGER not null,
+    bucket_start    TIMESTAMP WITHOUT TIME ZONE not null,
+    hits            BIGINT not null,
+    constraint ENDPOINT_HIT_ROLLUP_PK primary key (granularity, bucket_start, uri_id, app_id)
+);
+
+create table if not exists ENDPOINT_HIT_SKETCH (
+    granularity     VARCHAR(8) not null,
+    app_id          INTEGER not null,
+    uri_id          INTEGER not null,
+    bucket_start    TIMESTAMP WITHOUT TIME ZONE not null,
+    registers       BYTEA not null,
+    constraint ENDPOINT_HIT_SKETCH_PK primary key (granularity, bucket_start, uri_id, app_id)
+);
+
+-- Lives as long as the journal segment files: rows of segments that no longer exist are removed at startup
+create table if not exists HIT_JOURNAL_CHECKPOINT (
+    segment         BIGINT not null,
+    position        INTEGER not null,
+    constraint HIT_JOURNAL_CHECKPOINT_PK primary key (segment)
+);
+
+-- Archive segments whose export has committed; other segment files are leftovers of a failed export
+create table if not exists ARCHIVE_SEGMENT (
+    name            VARCHAR(128) not null,
+    to_created      TIMESTAMP WITHOUT TIME ZONE not null,
+    hits            INTEGER not null,
+    constraint ARCHIVE_SEGMENT_PK primary key (name)
+);
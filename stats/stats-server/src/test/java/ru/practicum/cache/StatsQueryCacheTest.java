@@ -0,0 +1,118 @@
+package ru.practicum.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatsQueryCacheTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2022, 9, 6, 11, 0, 0);
+
+    private final List<EndpointHit> hits = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CacheProperties properties = new CacheProperties();
+    private final StatsQueryCache cache = new StatsQueryCache(properties);
+
+    @Test
+    void nonUniqueRequestsAreAnsweredForExactlyTheRequestedRange() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            hits.add(hit("/events/" + random.nextInt(5), BASE.plusNanos(random.nextInt(600_000) * 1_000_000L)));
+        }
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime start = BASE.plusSeconds(random.nextInt(300));
+            LocalDateTime end = start.plusSeconds(random.nextInt(300));
+            List<String> uris = random.nextBoolean() ? null : List.of("/events/1", "/events/3");
+
+            List<ViewStatsDto> cached = cache.get(start, end, uris, false, false, loader(uris));
+
+            assertThat(toMap(cached)).as("[%s, %s]", start, end).isEqualTo(toMap(loader(uris).apply(start, end)));
+        }
+    }
+
+    @Test
+    void uniqueRequestsAreCachedOnlyWithAlignedBoundsUnlessFloored() {
+        properties.setFloorUnique(false);
+        hits.add(hit("/events/1", BASE.plusSeconds(10)));
+        hits.add(hit("/events/1", BASE.plusSeconds(45)));
+
+        cache.get(BASE.plusSeconds(5), BASE.plusSeconds(50), null, true, false, loader(null));
+        cache.get(BASE.plusSeconds(5), BASE.plusSeconds(50), null, true, false, loader(null));
+        assertThat(loads).hasValue(2);
+
+        List<ViewStatsDto> first = cache.get(BASE, BASE.plusSeconds(60), null, true, false, loader(null));
+        List<ViewStatsDto> second = cache.get(BASE, BASE.plusSeconds(60), null, true, false, loader(null));
+        assertThat(loads).hasValue(3);
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void unalignedUniqueRequestsShareTheFlooredEntry() {
+        hits.add(hit("/events/1", BASE.plusSeconds(10)));
+        hits.add(hit("/events/1", BASE.plusSeconds(45)));
+
+        List<ViewStatsDto> first = cache.get(BASE.plusSeconds(5), BASE.plusSeconds(50), null, true, false,
+                loader(null));
+        List<ViewStatsDto> second = cache.get(BASE.plusSeconds(1), BASE.plusSeconds(59), null, true, false,
+                loader(null));
+
+        // Both are answered for [BASE, BASE + 30s): the hit of the last, partial bucket is not counted yet
+        assertThat(loads).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(toMap(first)).containsExactly(Map.entry("/events/1", 1L));
+    }
+
+    @Test
+    void lateHitInvalidatesOverlappingEntries() {
+        hits.add(hit("/events/1", BASE.plusSeconds(10)));
+        LocalDateTime end = BASE.plusSeconds(59);
+
+        assertThat(toMap(cache.get(BASE, end, null, false, false, loader(null)))).containsEntry("/events/1", 1L);
+        EndpointHit late = hit("/events/1", BASE.plusSeconds(20));
+        hits.add(late);
+        cache.onHitsCommitted(List.of(late));
+
+        assertThat(toMap(cache.get(BASE, end, null, false, false, loader(null)))).containsEntry("/events/1", 2L);
+    }
+
+    // Counts hits in [from, to], both inclusive, like StatsServiceImpl.loadStatistic
+    private BiFunction<LocalDateTime, LocalDateTime, List<ViewStatsDto>> loader(List<String> uris) {
+        return (from, to) -> {
+            loads.incrementAndGet();
+            Map<String, Long> counts = new HashMap<>();
+            for (EndpointHit hit : hits) {
+                if (!hit.getTimestamp().isBefore(from) && !hit.getTimestamp().isAfter(to)
+                        && (uris == null || uris.contains(hit.getUri()))) {
+                    counts.merge(hit.getUri(), 1L, Long::sum);
+                }
+            }
+            return counts.entrySet().stream()
+                    .map(entry -> new ViewStatsDto("ewm-main-service", entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList());
+        };
+    }
+
+    private static Map<String, Long> toMap(List<ViewStatsDto> viewStats) {
+        return viewStats.stream().collect(Collectors.toMap(ViewStatsDto::getUri, ViewStatsDto::getHits));
+    }
+
+    private static EndpointHit hit(String uri, LocalDateTime timestamp) {
+        return EndpointHit.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip("192.168.0.1")
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,231 @@
+package ru.practicum.ingestion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.repository.JournalCheckpointRepository;
+import ru.practicum.service.EndpointHitWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+class HitJournalTest {
+    private static final long TIMEOUT_MS = 30_000;
+
+    @TempDir
+    Path directory;
+
+    // Stands in for HIT_JOURNAL_CHECKPOINT, shared by the journals of one test like the database is across restarts
+    private final Map<Long, Integer> checkpoints = new ConcurrentHashMap<>();
+    private final TransactionTemplate transactionTemplate =
+            new TransactionTemplate(mock(PlatformTransactionManager.class));
+    private final List<HitJournal> journals = new ArrayList<>();
+    // Releases a loader left hanging by a simulated crash
+    private final CountDownLatch crashed = new CountDownLatch(1);
+
+    @AfterEach
+    void stopJournals() throws Exception {
+        crashed.countDown();
+        for (HitJournal journal : journals) {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void recoveryAfterCrashWithTornTailReplaysEveryCommittedHitOnce() throws Exception {
+        // The first run commits two batches, then its loader hangs inside the third transaction until the "crash"
+        List<String> firstRun = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch hung = new CountDownLatch(1);
+        EndpointHitWriter firstWriter = mock(EndpointHitWriter.class);
+        doAnswer(invocation -> {
+            List<EndpointHit> hits = invocation.getArgument(0);
+            if (firstRun.size() >= 8) {
+                hung.countDown();
+                // Once released the process is gone, nothing it writes any more is looked at
+                crashed.await();
+                return null;
+            }
+            hits.forEach(hit -> firstRun.add(hit.getUri()));
+            return null;
+        }).when(firstWriter).write(anyList());
+        HitJournal first = start(firstWriter, 4);
+        List<String> appended = IntStream.range(0, 20)
+                .mapToObj(i -> "/events/" + i)
+                .collect(Collectors.toList());
+        appended.forEach(uri -> first.append(hit(uri)));
+        assertThat(hung.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+
+        // The last append was cut short: its length made it to the file, the end of its body did not
+        Path segment = onlySegment();
+        tearLastRecord(segment);
+
+        List<String> secondRun = Collections.synchronizedList(new ArrayList<>());
+        EndpointHitWriter secondWriter = mock(EndpointHitWriter.class);
+        doAnswer(invocation -> {
+            List<EndpointHit> hits = invocation.getArgument(0);
+            hits.forEach(hit -> secondRun.add(hit.getUri()));
+            return null;
+        }).when(secondWriter).write(anyList());
+        HitJournal second = start(secondWriter, 4);
+        awaitUntil(() -> firstRun.size() + secondRun.size() >= 19);
+        second.stop();
+        journals.remove(second);
+
+        List<String> replayed = new ArrayList<>(firstRun);
+        replayed.addAll(secondRun);
+        assertThat(replayed).containsExactlyElementsOf(appended.subList(0, 19));
+        assertThat(secondRun).doesNotContainAnyElementsOf(firstRun);
+        assertThat(Files.exists(segment)).isFalse();
+        assertThat(checkpoints).isEmpty();
+    }
+
+    @Test
+    void appendsAndReplaysHitsAcrossSegments() throws Exception {
+        int threads = 4;
+        int hitsPerThread = 50_000;
+        AtomicLong written = new AtomicLong();
+        EndpointHitWriter writer = mock(EndpointHitWriter.class);
+        doAnswer(invocation -> {
+            List<EndpointHit> hits = invocation.getArgument(0);
+            written.addAndGet(hits.size());
+            return null;
+        }).when(writer).write(anyList());
+        HitJournal journal = start(writer, 500);
+
+        long started = System.nanoTime();
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < hitsPerThread; i++) {
+                    journal.append(hit("/events/" + i));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        long appendNanos = System.nanoTime() - started;
+        awaitUntil(() -> written.get() == (long) threads * hitsPerThread);
+        long replayNanos = System.nanoTime() - started;
+        journal.stop();
+        journals.remove(journal);
+
+        // Wall-clock rates depend on the machine, so they are only logged
+        long total = (long) threads * hitsPerThread;
+        log.info("Journal: {} hits appended at {}/s, replayed at {}/s", total,
+                Math.round(total * 1e9 / appendNanos), Math.round(total * 1e9 / replayNanos));
+        assertThat(written.get()).isEqualTo(total);
+        assertThat(segments()).isEmpty();
+        assertThat(checkpoints).isEmpty();
+    }
+
+    private HitJournal start(EndpointHitWriter writer, int batchSize) throws IOException {
+        IngestionProperties properties = new IngestionProperties();
+        properties.setMode(IngestionMode.JOURNAL);
+        properties.setJournalDirectory(directory.toString());
+        properties.setJournalSegmentBytes(1024 * 1024);
+        properties.setBatchSize(batchSize);
+        properties.setFlushIntervalMs(10);
+        HitJournal journal = new HitJournal(writer, new IngestionLimiter(properties), checkpointRepository(),
+                transactionTemplate, properties);
+        journal.start();
+        journals.add(journal);
+        return journal;
+    }
+
+    private JournalCheckpointRepository checkpointRepository() {
+        JournalCheckpointRepository repository = mock(JournalCheckpointRepository.class);
+        when(repository.getPosition(anyLong()))
+                .thenAnswer(invocation -> checkpoints.getOrDefault(invocation.<Long>getArgument(0), 0));
+        when(repository.findSegments()).thenAnswer(invocation -> new ArrayList<>(checkpoints.keySet()));
+        doAnswer(invocation -> checkpoints.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(repository).savePosition(anyLong(), anyInt());
+        doAnswer(invocation -> checkpoints.remove(invocation.<Long>getArgument(0)))
+                .when(repository).delete(anyLong());
+        return repository;
+    }
+
+    private static EndpointHit hit(String uri) {
+        return EndpointHit.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip("192.168.0.1")
+                .timestamp(LocalDateTime.of(2022, 9, 6, 11, 0, 23))
+                .build();
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments();
+        assertThat(segments).hasSize(1);
+        return segments.get(0);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).collect(Collectors.toList());
+        }
+    }
+
+    // Zeroes the last bytes of the body of the last record, leaving its length and checksum in place
+    private static void tearLastRecord(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(JournalSegment.RECORD_HEADER_BYTES);
+            int position = 0;
+            int last = -1;
+            int lastLength = 0;
+            while (true) {
+                header.clear();
+                channel.read(header, position);
+                int length = header.getInt(0);
+                if (length == 0) {
+                    break;
+                }
+                last = position;
+                lastLength = length;
+                position += JournalSegment.RECORD_HEADER_BYTES + length;
+            }
+            assertThat(last).isNotNegative();
+            channel.write(ByteBuffer.allocate(4), last + JournalSegment.RECORD_HEADER_BYTES + lastLength - 4);
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
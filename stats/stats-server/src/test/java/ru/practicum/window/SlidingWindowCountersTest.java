@@ -0,0 +1,129 @@
+package ru.practicum.window;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCountersTest {
+    private static final int LENGTH_SECONDS = 5;
+    private static final int THREADS = 8;
+    private static final int HITS_PER_SECOND = 2_000;
+    private static final String[] URIS = {"/events/1", "/events/2", "/events/3"};
+
+    private final AtomicLong epochSecond = new AtomicLong(LocalDateTime.of(2022, 9, 6, 11, 0, 0)
+            .toEpochSecond(ZoneOffset.UTC));
+    private final SlidingWindowCounters counters = new SlidingWindowCounters(properties(), new TickingClock());
+
+    @Test
+    void concurrentAddsAcrossSlotRolloverKeepExactTotals() throws Exception {
+        long started = epochSecond.get();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            // Six slots, so every round takes over the slot of a second that has just left the window
+            for (int round = 1; round <= 4 * (LENGTH_SECONDS + 1); round++) {
+                long now = started + round;
+                epochSecond.set(now);
+                runConcurrently(executor, () -> {
+                    // Late hits for the previous second race with the reuse of a slot for the current one
+                    for (int i = 0; i < HITS_PER_SECOND; i++) {
+                        counters.add(List.of(hit(URIS[i % URIS.length], now - 1), hit(URIS[i % URIS.length], now)));
+                    }
+                });
+
+                if (now - LENGTH_SECONDS + 1 > started) {
+                    // Each of the four earlier seconds got its hits in two rounds, the current one in this round only
+                    List<ViewStatsDto> viewStats = counters.getStatistic(at(now - LENGTH_SECONDS + 1), at(now),
+                            null, false).orElseThrow();
+                    assertThat(viewStats).hasSize(URIS.length);
+                    assertThat(viewStats.stream().mapToLong(ViewStatsDto::getHits).sum())
+                            .as("round %d", round)
+                            .isEqualTo(9L * THREADS * HITS_PER_SECOND);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rangesBeforeTheWindowAreLeftToTheDatabase() {
+        long now = epochSecond.addAndGet(LENGTH_SECONDS + 1);
+        counters.add(List.of(hit(URIS[0], now)));
+
+        assertThat(counters.getStatistic(at(now - LENGTH_SECONDS), at(now), null, false)).isEmpty();
+        assertThat(counters.getStatistic(at(now), at(now), null, true)).isEmpty();
+        assertThat(counters.getStatistic(at(now), at(now), null, false)).hasValueSatisfying(viewStats ->
+                assertThat(viewStats).extracting(ViewStatsDto::getHits).containsExactly(1L));
+    }
+
+    private static void runConcurrently(ExecutorService executor, Runnable task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static SlidingWindowProperties properties() {
+        SlidingWindowProperties properties = new SlidingWindowProperties();
+        properties.setLength(Duration.ofSeconds(LENGTH_SECONDS));
+        properties.setClockSkew(Duration.ZERO);
+        return properties;
+    }
+
+    private static LocalDateTime at(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static EndpointHit hit(String uri, long epochSecond) {
+        return EndpointHit.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip("192.168.0.1")
+                .timestamp(at(epochSecond))
+                .build();
+    }
+
+    // Moved forward by the test only, so a round never straddles two seconds
+    private class TickingClock extends Clock {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochSecond(epochSecond.get());
+        }
+    }
+}